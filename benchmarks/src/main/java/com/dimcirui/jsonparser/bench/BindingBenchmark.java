@@ -0,0 +1,55 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+
+/**
+ * Binding into records with JSONParser.fromJSON(String, Class)
+ *      against building the JsonObject/JsonArray tree of the same document.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BindingBenchmark {
+    // the records of Corpus.Kind.NUMERIC and STRING
+    public record Reading(int id, long ts, double[] values) {
+    }
+
+    public record Text(String id, String text, List<String> tags) {
+    }
+
+    @Param({"NUMERIC", "STRING"})
+    public Corpus.Kind kind;
+
+    @Param({"MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private String json;
+    private Class<?> type;
+    private JSONParser jsonParser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = Corpus.generate(kind, size);
+        type = kind == Corpus.Kind.NUMERIC ? Reading[].class : Text[].class;
+        jsonParser = new JSONParser();
+    }
+
+    @Benchmark
+    public Object bind() throws IOException {
+        return jsonParser.fromJSON(json, type);
+    }
+
+    @Benchmark
+    public Object tree() throws IOException {
+        return jsonParser.fromJSON(json);
+    }
+}
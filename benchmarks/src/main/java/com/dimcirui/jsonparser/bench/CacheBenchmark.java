@@ -0,0 +1,49 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.cache.DocumentCache;
+import com.dimcirui.jsonparser.core.JSONParser;
+
+/**
+ * The same document parsed again through a DocumentCache against parsing it every time.
+ * The cached document is an equal String, not the same instance, so the input is hashed and compared.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+    @Param({"STRING", "NESTED"})
+    public Corpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM"})
+    public Corpus.Size size;
+
+    private String json;
+    private JSONParser jsonParser;
+    private DocumentCache cache;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        json = Corpus.generate(kind, size);
+        jsonParser = new JSONParser();
+        cache = new DocumentCache(jsonParser, 64L << 20);
+        cache.fromJSON(new String(json));
+    }
+
+    @Benchmark
+    public Object cached() throws IOException {
+        return cache.fromJSON(json);
+    }
+
+    @Benchmark
+    public Object uncached() throws IOException {
+        return jsonParser.fromJSON(json);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+
+/**
+ * Many threads parsing through one shared JSONParser,
+ *      compared with creating a new JSONParser for every document.
+ * Override the thread count with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ConcurrentBenchmark {
+    @Param({"NUMERIC", "STRING", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM"})
+    public Corpus.Size size;
+
+    private String json;
+    private byte[] bytes;
+    private JSONParser shared;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = Corpus.generate(kind, size);
+        bytes = Corpus.generateBytes(kind, size);
+        shared = new JSONParser();
+    }
+
+    @Benchmark
+    public Object sharedParser() throws IOException {
+        return shared.fromJSON(json);
+    }
+
+    @Benchmark
+    public Object sharedParserBytes() {
+        return shared.fromJSON(bytes);
+    }
+
+    @Benchmark
+    public Object parserPerCall() throws IOException {
+        return new JSONParser().fromJSON(json);
+    }
+}
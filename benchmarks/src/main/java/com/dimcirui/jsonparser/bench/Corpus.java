@@ -0,0 +1,113 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generated benchmark documents.
+ * Each kind stresses one part of the lexer or parser,
+ *      each size repeats the same record until the document is big enough.
+ */
+public final class Corpus {
+    public enum Kind {
+        NUMERIC,    // arrays of integers and doubles
+        STRING,     // objects with long ASCII strings and escapes
+        NESTED,     // deeply nested objects and arrays
+        UNICODE     // CJK, emoji and \\u escapes
+    }
+
+    public enum Size {
+        SMALL(1 << 10),
+        MEDIUM(100 << 10),
+        LARGE(10 << 20);
+
+        final int bytes;
+
+        Size(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+    private static final String[] UNICODE_WORDS = {"张三", "研发部", "示例科技有限公司", "上海", "😀🚀", "Ünïcödé", "\\u00e9t\\u00e9", "日本語テキスト"};
+    private static final int NESTING_DEPTH = 32;
+
+    private Corpus() {
+    }
+
+    public static String generate(Kind kind, Size size) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(size.bytes + 1024);
+        sb.append('[');
+        int id = 0;
+        do {
+            if (id > 0) sb.append(',');
+            appendRecord(sb, kind, id++, random);
+        } while (sb.length() < size.bytes);
+        sb.append(']');
+        return sb.toString();
+    }
+
+    public static byte[] generateBytes(Kind kind, Size size) {
+        return generate(kind, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The same records, one per line (NDJSON).
+     */
+    public static byte[] generateLines(Kind kind, Size size) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(size.bytes + 1024);
+        int id = 0;
+        do {
+            appendRecord(sb, kind, id++, random);
+            sb.append('\n');
+        } while (sb.length() < size.bytes);
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendRecord(StringBuilder sb, Kind kind, int id, Random random) {
+        switch (kind) {
+            case NUMERIC:
+                sb.append("{\"id\":").append(id).append(",\"ts\":").append(1700000000000L + random.nextInt(1 << 30));
+                sb.append(",\"values\":[");
+                for (int i = 0; i < 16; i++) {
+                    if (i > 0) sb.append(',');
+                    if (i % 2 == 0) sb.append(random.nextInt(100000) - 50000);
+                    else sb.append(random.nextDouble() * 1000).append("e-").append(random.nextInt(5));
+                }
+                sb.append("]}");
+                break;
+            case STRING:
+                sb.append("{\"id\":\"record-").append(id).append("\",\"text\":\"");
+                for (int i = 0; i < 12; i++) {
+                    sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                sb.append("\\\"quoted\\\" \\\\path\\\\to\",\"tags\":[");
+                for (int i = 0; i < 4; i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append('"').append(WORDS[random.nextInt(WORDS.length)]).append('"');
+                }
+                sb.append("]}");
+                break;
+            case NESTED:
+                for (int i = 0; i < NESTING_DEPTH; i++) {
+                    sb.append(i % 2 == 0 ? "{\"child\":" : "[");
+                }
+                sb.append(id);
+                for (int i = NESTING_DEPTH - 1; i >= 0; i--) {
+                    sb.append(i % 2 == 0 ? "}" : ",null]");
+                }
+                break;
+            case UNICODE:
+                sb.append("{\"名前\":\"").append(UNICODE_WORDS[random.nextInt(UNICODE_WORDS.length)]);
+                sb.append("\",\"部门\":\"").append(UNICODE_WORDS[random.nextInt(UNICODE_WORDS.length)]);
+                sb.append("\",\"描述\":\"");
+                for (int i = 0; i < 6; i++) {
+                    sb.append(UNICODE_WORDS[random.nextInt(UNICODE_WORDS.length)]);
+                }
+                sb.append("\"}");
+                break;
+        }
+    }
+}
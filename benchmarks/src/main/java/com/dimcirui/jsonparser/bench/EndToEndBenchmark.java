@@ -0,0 +1,70 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.model.JsonArray;
+
+/**
+ * JSONParser end to end: the default String path,
+ *      the streaming Reader path, the UTF-8 byte[] path, the parallel byte[] path,
+ *      the tape representation and lazy mode reading only the first record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private String json;
+    private byte[] bytes;
+    private JSONParser jsonParser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = Corpus.generate(kind, size);
+        bytes = Corpus.generateBytes(kind, size);
+        jsonParser = new JSONParser();
+    }
+
+    @Benchmark
+    public Object fromJSON() throws IOException {
+        return jsonParser.fromJSON(json);
+    }
+
+    @Benchmark
+    public Object fromJSONStreaming() throws IOException {
+        return jsonParser.fromJSON(new StringReader(json));
+    }
+
+    @Benchmark
+    public Object fromJSONBytes() {
+        return jsonParser.fromJSON(bytes);
+    }
+
+    @Benchmark
+    public Object fromJSONParallel() {
+        return jsonParser.fromJSONParallel(bytes);
+    }
+
+    @Benchmark
+    public Object fromJSONTape() {
+        return jsonParser.fromJSONTape(json);
+    }
+
+    @Benchmark
+    public Object fromJSONLazyFirstRecord() {
+        return ((JsonArray) jsonParser.fromJSONLazy(json)).get(0);
+    }
+}
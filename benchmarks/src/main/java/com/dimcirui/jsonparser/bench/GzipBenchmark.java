@@ -0,0 +1,63 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+
+/**
+ * Gzip compressed input: JSONParser.fromGzip inflates on a background thread
+ *      against inflating on the parsing thread, streamed through a Reader or fully into a byte[] first.
+ * The background thread only pays off with a spare core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GzipBenchmark {
+    @Param({"NUMERIC", "STRING"})
+    public Corpus.Kind kind;
+
+    @Param({"LARGE"})
+    public Corpus.Size size;
+
+    private byte[] compressed;
+    private JSONParser jsonParser;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(Corpus.generateBytes(kind, size));
+        }
+        compressed = bytes.toByteArray();
+        jsonParser = new JSONParser();
+    }
+
+    @Benchmark
+    public Object background() throws IOException {
+        return jsonParser.fromGzip(new ByteArrayInputStream(compressed));
+    }
+
+    @Benchmark
+    public Object sameThreadReader() throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed), 1 << 16);
+        return jsonParser.fromJSON(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Object sameThreadBytes() throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed), 1 << 16);
+        return jsonParser.fromJSON(in.readAllBytes());
+    }
+}
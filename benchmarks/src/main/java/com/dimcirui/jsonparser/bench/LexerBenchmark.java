@@ -0,0 +1,42 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.lexer.TokenList;
+
+/**
+ * Lexer.tokenize alone, from a String to a TokenList.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private String json;
+    private Lexer lexer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = Corpus.generate(kind, size);
+        lexer = new Lexer();
+    }
+
+    @Benchmark
+    public TokenList tokenize() throws IOException {
+        return lexer.tokenize(new CharReader(new StringReader(json)));
+    }
+}
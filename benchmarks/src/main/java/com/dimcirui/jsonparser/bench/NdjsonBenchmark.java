@@ -0,0 +1,58 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.stream.NdjsonReader;
+
+/**
+ * NdjsonReader over a LARGE corpus, one record per line,
+ *      with 1 to 8 workers to show how throughput scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NdjsonBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private byte[] lines;
+    private ForkJoinPool pool;
+    private NdjsonReader reader;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        lines = Corpus.generateLines(kind, Corpus.Size.LARGE);
+        pool = new ForkJoinPool(parallelism);
+        reader = new NdjsonReader(pool, 256 << 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long ordered() {
+        try (Stream<Object> records = reader.read(new ByteArrayInputStream(lines), true)) {
+            return records.count();
+        }
+    }
+
+    @Benchmark
+    public long unordered() {
+        try (Stream<Object> records = reader.read(new ByteArrayInputStream(lines), false)) {
+            return records.count();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.model.JsonObject;
+
+/**
+ * JsonObject against the HashMap it used to wrap:
+ *      building an object and looking up each of its keys.
+ * gc.alloc.rate.norm of build shows the heap used per object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectBenchmark {
+    @Param({"4", "8", "32"})
+    public int keyCount;
+
+    private String[] keys;
+    private JsonObject jsonObject;
+    private Map<String, Object> map;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new String[keyCount];
+        jsonObject = new JsonObject();
+        map = new HashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            // interned, like the keys from a SymbolTable
+            keys[i] = ("field" + i).intern();
+            jsonObject.put(keys[i], i);
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    public JsonObject build() {
+        JsonObject built = new JsonObject();
+        for (String key : keys) built.put(key, key);
+        return built;
+    }
+
+    @Benchmark
+    public Map<String, Object> buildHashMap() {
+        Map<String, Object> built = new HashMap<>();
+        for (String key : keys) built.put(key, key);
+        return built;
+    }
+
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (String key : keys) sum += (Integer) jsonObject.get(key);
+        return sum;
+    }
+
+    @Benchmark
+    public int getHashMap() {
+        int sum = 0;
+        for (String key : keys) sum += (Integer) map.get(key);
+        return sum;
+    }
+}
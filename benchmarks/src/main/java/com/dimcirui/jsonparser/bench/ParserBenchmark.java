@@ -0,0 +1,45 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.lexer.TokenList;
+import com.dimcirui.jsonparser.parser.Parser;
+
+/**
+ * Parser.parse alone, from a TokenList that is tokenized once and rewound for every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private TokenList tokenList;
+    private Parser parser;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        String json = Corpus.generate(kind, size);
+        tokenList = new Lexer().tokenize(new CharReader(new StringReader(json)));
+        parser = new Parser();
+    }
+
+    @Benchmark
+    public Object parse() {
+        tokenList.reset();
+        return parser.parse(tokenList);
+    }
+}
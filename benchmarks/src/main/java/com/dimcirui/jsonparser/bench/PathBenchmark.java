@@ -0,0 +1,53 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.path.JsonPath;
+
+/**
+ * JsonPath on the token stream, which skips what can not match,
+ *      against parsing the whole tree first and evaluating on it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathBenchmark {
+    @Param({"NUMERIC", "STRING"})
+    public Corpus.Kind kind;
+
+    @Param({"MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    @Param({"$[*].id", "$[10].values[0]", "$..tags[0]"})
+    public String expression;
+
+    private String json;
+    private JsonPath path;
+    private JSONParser jsonParser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = Corpus.generate(kind, size);
+        path = JsonPath.compile(expression);
+        jsonParser = new JSONParser();
+    }
+
+    @Benchmark
+    public List<Object> streaming() throws IOException {
+        return path.select(new StringReader(json));
+    }
+
+    @Benchmark
+    public List<Object> parseThenSelect() throws IOException {
+        return path.select(jsonParser.fromJSON(json));
+    }
+}
@@ -0,0 +1,63 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonPushParser;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+/**
+ * JsonPushParser fed in chunks of a network read,
+ *      against JsonReader pulling the whole input from a ByteLexer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PushBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    @Param({"1024", "16384"})
+    public int chunkSize;
+
+    private byte[] bytes;
+    private ByteLexer byteLexer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bytes = Corpus.generateBytes(kind, size);
+        byteLexer = new ByteLexer();
+    }
+
+    @Benchmark
+    public int push() {
+        JsonPushParser parser = new JsonPushParser();
+        int events = 0;
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            parser.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+            while (parser.nextEvent() != JsonEvent.NEED_MORE_INPUT) events++;
+        }
+        parser.endOfInput();
+        while (parser.nextEvent() != JsonEvent.END_DOCUMENT) events++;
+        return events;
+    }
+
+    @Benchmark
+    public int pull() throws IOException {
+        JsonReader reader = new JsonReader(byteLexer.stream(bytes));
+        int events = 0;
+        while (reader.nextEvent() != JsonEvent.END_DOCUMENT) events++;
+        return events;
+    }
+}
@@ -0,0 +1,81 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.ByteScanner;
+import com.dimcirui.jsonparser.lexer.TokenList;
+
+/**
+ * Scalar against vector ByteScanner: the structural index and the plain-string scan,
+ *      plus ByteLexer.tokenize with whichever scanner is active.
+ * Add -jvmArgsAppend -Djsonparser.vector=false to run the lexer on the scalar path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScannerBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private ByteBuffer buffer;
+    private long[] bits;
+    private ByteScanner vector;
+    private ByteLexer byteLexer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        buffer = ByteBuffer.wrap(Corpus.generateBytes(kind, size));
+        bits = new long[(buffer.limit() + 63) >>> 6];
+        vector = ByteScanner.vector();
+        if (vector == null) throw new IllegalStateException("Vector API not available");
+        byteLexer = new ByteLexer();
+    }
+
+    @Benchmark
+    public boolean indexScalar() {
+        java.util.Arrays.fill(bits, 0);
+        return ByteScanner.scalar().index(buffer, 0, buffer.limit(), bits);
+    }
+
+    @Benchmark
+    public boolean indexVector() {
+        java.util.Arrays.fill(bits, 0);
+        return vector.index(buffer, 0, buffer.limit(), bits);
+    }
+
+    // skip every plain run of the document, like the string loop of ByteLexer
+    @Benchmark
+    public int skipPlainScalar() {
+        return skipAll(ByteScanner.scalar());
+    }
+
+    @Benchmark
+    public int skipPlainVector() {
+        return skipAll(vector);
+    }
+
+    private int skipAll(ByteScanner scanner) {
+        int count = 0;
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            i = scanner.skipPlain(buffer, i, limit);
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public TokenList tokenizeBytes() {
+        return byteLexer.tokenize(buffer);
+    }
+}
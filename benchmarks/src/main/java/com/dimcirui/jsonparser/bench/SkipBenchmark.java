@@ -0,0 +1,53 @@
+package com.dimcirui.jsonparser.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+/**
+ * JsonReader.skipValue over a whole document: the raw skip of ByteLexer
+ *      against reading every event, which is what the skip did before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SkipBenchmark {
+    @Param({"NUMERIC", "STRING", "NESTED", "UNICODE"})
+    public Corpus.Kind kind;
+
+    @Param({"MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    private byte[] bytes;
+    private ByteLexer byteLexer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bytes = Corpus.generateBytes(kind, size);
+        byteLexer = new ByteLexer();
+    }
+
+    @Benchmark
+    public JsonEvent rawSkip() throws IOException {
+        JsonReader reader = new JsonReader(byteLexer.stream(bytes));
+        reader.nextEvent();
+        reader.skipValue();
+        return reader.currentEvent();
+    }
+
+    @Benchmark
+    public int readAllEvents() throws IOException {
+        JsonReader reader = new JsonReader(byteLexer.stream(bytes));
+        int events = 0;
+        while (reader.nextEvent() != JsonEvent.END_DOCUMENT) events++;
+        return events;
+    }
+}
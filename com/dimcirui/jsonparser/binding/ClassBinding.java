@@ -0,0 +1,195 @@
+package com.dimcirui.jsonparser.binding;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+/**
+ * How to build one record or POJO class, computed once per class and cached in a ClassValue.
+ * A record collects its components in an Object[] and calls the canonical constructor,
+ *      a POJO is created with its no-arg constructor and filled through setXxx methods,
+ *      or directly through its non-final fields if there is no setter.
+ * All of them are MethodHandles adapted to Object parameters,
+ *      so they are called with invokeExact and no reflection happens per value.
+ */
+class ClassBinding {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final ClassValue<ClassBinding> CACHE = new ClassValue<ClassBinding>() {
+        @Override
+        protected ClassBinding computeValue(Class<?> type) {
+            return new ClassBinding(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final boolean isRecord;
+    // keys from the lexers are interned, so a lookup does not create any String
+    private final Map<String, Property> properties = new HashMap<>();
+    // record: (Object[]) -> Object, POJO: () -> Object
+    private final MethodHandle constructor;
+    // record components that are missing from the JSON
+    private final Object[] defaults;
+
+    private ClassBinding(Class<?> type) {
+        this.type = type;
+        this.isRecord = type.isRecord();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, LOOKUP);
+            if (isRecord) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] parameterTypes = new Class<?>[components.length];
+                defaults = new Object[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    RecordComponent component = components[i];
+                    parameterTypes[i] = component.getType();
+                    defaults[i] = defaultValue(component.getType());
+                    properties.put(component.getName(), new Property(component.getName(), component.getType(),
+                            DataBinder.readerFor(component.getGenericType()), i, null));
+                }
+                Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+                constructor = lookup.unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            }
+            else {
+                defaults = null;
+                constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+                        // a subclass field hides the one of its superclass
+                        if (properties.containsKey(field.getName())) continue;
+                        MethodHandle setter = setter(c, field);
+                        if (setter == null) continue;
+                        properties.put(field.getName(), new Property(field.getName(), field.getType(),
+                                DataBinder.readerFor(field.getGenericType()), -1, setter));
+                    }
+                }
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new JsonBindingException("Cannot bind to " + type.getName() +
+                    (isRecord ? "" : ", a POJO needs a no-arg constructor"), e);
+        }
+    }
+
+    static ClassBinding of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    // a public setXxx(T) method, otherwise the field itself unless it is final
+    private static MethodHandle setter(Class<?> owner, Field field) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+        String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        MethodHandle handle = null;
+        try {
+            Method method = owner.getMethod(name, field.getType());
+            if (!Modifier.isStatic(method.getModifiers())) handle = lookup.unreflect(method);
+        } catch (NoSuchMethodException e) {
+            // no setter, use the field
+        }
+        if (handle == null) {
+            if (Modifier.isFinal(field.getModifiers())) return null;
+            handle = lookup.unreflectSetter(field);
+        }
+        return handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    /**
+     * @param reader its current event is START_OBJECT (or VALUE_NULL)
+     * @return
+     * @throws IOException
+     */
+    Object read(JsonReader reader) throws IOException {
+        if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+        if (reader.currentEvent() != JsonEvent.START_OBJECT) {
+            throw new JsonTypeException("Cannot bind " + reader.currentEvent() + " to " + type.getSimpleName());
+        }
+        Object[] args = isRecord ? defaults.clone() : null;
+        Object bean = isRecord ? null : newInstance();
+
+        while (reader.nextEvent() == JsonEvent.KEY_NAME) {
+            Property property = properties.get(reader.getString());
+            reader.nextEvent();
+            if (property == null) {
+                reader.skipValue();
+                continue;
+            }
+            Object value = property.reader.read(reader);
+            // null leaves a primitive at its default
+            if (value == null && property.type.isPrimitive()) continue;
+            if (isRecord) args[property.index] = value;
+            else property.set(bean, value);
+        }
+        return isRecord ? newRecord(args) : bean;
+    }
+
+    private Object newInstance() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new JsonBindingException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    private Object newRecord(Object[] args) {
+        try {
+            return (Object) constructor.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new JsonBindingException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * A record component or a POJO field.
+     */
+    private static class Property {
+        final String name;
+        final Class<?> type;
+        final ValueReader reader;
+        // record: index of the component
+        final int index;
+        // POJO: (Object bean, Object value) -> void
+        final MethodHandle setter;
+
+        Property(String name, Class<?> type, ValueReader reader, int index, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.reader = reader;
+            this.index = index;
+            this.setter = setter;
+        }
+
+        void set(Object bean, Object value) {
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new JsonBindingException("Cannot set " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.dimcirui.jsonparser.binding;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+/**
+ * Binds JSON straight into records, POJOs, collections and scalars,
+ *      reading the events of a JsonReader: no JsonObject/JsonArray is built on the way.
+ * Supported targets: String, primitives and their wrappers, BigInteger, BigDecimal, enums (by name),
+ *      arrays, List/Set/Collection, Map with String keys, records, POJOs,
+ *      and Object/JsonObject/JsonArray for untyped parts, which are read as a tree.
+ *
+ * A ValueReader is chosen once per class and cached in a ClassValue,
+ *      records and POJOs keep their MethodHandles and properties in a ClassBinding.
+ * Unknown keys are skipped with JsonReader.skipValue, missing ones keep their default.
+ *
+ * BigInteger and BigDecimal are built from the text of the number, not from a double,
+ *      so a BigDecimal is exact only if the lexer keeps number text, see needsNumberText.
+ */
+public final class DataBinder {
+    private static final ClassValue<ValueReader> READERS = new ClassValue<ValueReader>() {
+        @Override
+        protected ValueReader computeValue(Class<?> type) {
+            return createReader(type);
+        }
+    };
+
+    // whether a class has a BigDecimal anywhere inside, computed once per class
+    private static final ClassValue<Boolean> NEEDS_TEXT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return needsNumberText(type, new HashSet<>());
+        }
+    };
+
+    private DataBinder() {
+    }
+
+    /**
+     * Check if binding to type needs the text of the numbers, i.e. type contains a BigDecimal.
+     * The lexer under the JsonReader should then keep number text, see Lexer.keepNumberText,
+     *      otherwise a decimal is bound from its double value.
+     * Integers beyond the range of a long always keep their text.
+     * @param type
+     * @return
+     */
+    public static boolean needsNumberText(Type type) {
+        if (type instanceof Class) return NEEDS_TEXT.get((Class<?>) type);
+        return needsNumberText(type, new HashSet<>());
+    }
+
+    private static boolean needsNumberText(Type type, Set<Class<?>> seen) {
+        if (type instanceof ParameterizedType) {
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                if (needsNumberText(argument, seen)) return true;
+            }
+            return needsNumberText(((ParameterizedType) type).getRawType(), seen);
+        }
+        if (type instanceof GenericArrayType) {
+            return needsNumberText(((GenericArrayType) type).getGenericComponentType(), seen);
+        }
+        if (!(type instanceof Class)) return false;
+        Class<?> c = (Class<?>) type;
+        if (c == BigDecimal.class) return true;
+        if (c.isArray()) return needsNumberText(c.getComponentType(), seen);
+        // JDK types, e.g. String or List, are not bound by their fields; a class may contain itself
+        if (c.isPrimitive() || c.isEnum() || c.getName().startsWith("java.") || !seen.add(c)) return false;
+        if (c.isRecord()) {
+            for (RecordComponent component : c.getRecordComponents()) {
+                if (needsNumberText(component.getGenericType(), seen)) return true;
+            }
+            return false;
+        }
+        for (Class<?> owner = c; owner != null && owner != Object.class; owner = owner.getSuperclass()) {
+            for (Field field : owner.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) continue;
+                if (needsNumberText(field.getGenericType(), seen)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the next value of the reader as an instance of type.
+     * @param reader
+     * @param type
+     * @return
+     * @throws IOException
+     * @throws JsonParseException If the document is not well-formed.
+     * @throws JsonTypeException If a value does not fit its target type.
+     * @throws JsonBindingException If a class can not be bound, e.g. a POJO without a no-arg constructor.
+     */
+    public static <T> T read(JsonReader reader, Class<T> type) throws IOException {
+        return wrap(type).cast(notNull(read(reader, (Type) type), type));
+    }
+
+    /**
+     * Same as read(JsonReader, Class) for a generic type, e.g. List&lt;Employee&gt;.
+     * @param reader
+     * @param type
+     * @return
+     * @throws IOException
+     */
+    public static Object read(JsonReader reader, Type type) throws IOException {
+        if (reader.nextEvent() == JsonEvent.END_DOCUMENT) {
+            throw new JsonParseException("Unexpected end of document");
+        }
+        return readerFor(type).read(reader);
+    }
+
+    static ValueReader readerFor(Type type) {
+        if (type instanceof Class) return READERS.get((Class<?>) type);
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Class<?> raw = (Class<?>) parameterized.getRawType();
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw)) return collectionReader(raw, readerFor(arguments[0]));
+            if (Map.class.isAssignableFrom(raw)) return mapReader(raw, readerFor(arguments[1]));
+            return READERS.get(raw);
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            return arrayReader(rawClass(component), readerFor(component));
+        }
+        // type variables and wildcards
+        return JsonReader::readValue;
+    }
+
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        return Object.class;
+    }
+
+    private static ValueReader createReader(Class<?> type) {
+        if (type == String.class) return reader -> {
+            if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+            expect(reader, JsonEvent.VALUE_STRING, type);
+            return reader.getString();
+        };
+        if (type == int.class || type == Integer.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            long value = longValue(reader, type);
+            if ((int) value != value) throw mismatch(reader, type);
+            return (int) value;
+        };
+        if (type == long.class || type == Long.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            return longValue(reader, type);
+        };
+        if (type == short.class || type == Short.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            long value = longValue(reader, type);
+            if ((short) value != value) throw mismatch(reader, type);
+            return (short) value;
+        };
+        if (type == byte.class || type == Byte.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            long value = longValue(reader, type);
+            if ((byte) value != value) throw mismatch(reader, type);
+            return (byte) value;
+        };
+        if (type == double.class || type == Double.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            return reader.getDouble();
+        };
+        if (type == float.class || type == Float.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            return (float) reader.getDouble();
+        };
+        if (type == boolean.class || type == Boolean.class) return reader -> {
+            switch (reader.currentEvent()) {
+                case VALUE_TRUE: return Boolean.TRUE;
+                case VALUE_FALSE: return Boolean.FALSE;
+                case VALUE_NULL: return null;
+                default: throw mismatch(reader, type);
+            }
+        };
+        if (type == char.class || type == Character.class) return reader -> {
+            if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+            expect(reader, JsonEvent.VALUE_STRING, type);
+            String value = reader.getString();
+            if (value.length() != 1) throw mismatch(reader, type);
+            return value.charAt(0);
+        };
+        if (type == BigInteger.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            if (!isInteger(reader)) throw mismatch(reader, type);
+            // the digits of an integer beyond a long are always kept
+            return new BigInteger(reader.getString());
+        };
+        if (type == BigDecimal.class) return reader -> {
+            if (!isNumber(reader, type)) return null;
+            // exact if the lexer keeps number text, see needsNumberText
+            return new BigDecimal(reader.getString());
+        };
+        if (type == Object.class || type == Number.class) return JsonReader::readValue;
+        if (type == JsonObject.class || type == JsonArray.class) return reader -> {
+            if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+            Object value = reader.readValue();
+            if (!type.isInstance(value)) throw mismatch(reader, type);
+            return value;
+        };
+        if (type.isEnum()) return enumReader(type);
+        if (type.isArray()) return arrayReader(type.getComponentType(), readerFor(type.getComponentType()));
+        if (Collection.class.isAssignableFrom(type)) return collectionReader(type, JsonReader::readValue);
+        if (Map.class.isAssignableFrom(type)) return mapReader(type, JsonReader::readValue);
+        if (type.isPrimitive() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new JsonBindingException("Cannot bind to " + type.getName());
+        }
+        // the binding is looked up per value, so a class may contain itself
+        return reader -> ClassBinding.of(type).read(reader);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueReader enumReader(Class<?> type) {
+        return reader -> {
+            if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+            expect(reader, JsonEvent.VALUE_STRING, type);
+            try {
+                return Enum.valueOf((Class) type, reader.getString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonTypeException("No constant " + reader.getString() + " in " + type.getSimpleName());
+            }
+        };
+    }
+
+    private static ValueReader arrayReader(Class<?> component, ValueReader element) {
+        if (component == int.class) return reader -> {
+            if (!startArray(reader, int[].class)) return null;
+            int[] values = new int[8];
+            int size = 0;
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = (Integer) notNull(element.read(reader), int.class);
+            }
+            return Arrays.copyOf(values, size);
+        };
+        if (component == long.class) return reader -> {
+            if (!startArray(reader, long[].class)) return null;
+            long[] values = new long[8];
+            int size = 0;
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = (Long) notNull(element.read(reader), long.class);
+            }
+            return Arrays.copyOf(values, size);
+        };
+        if (component == double.class) return reader -> {
+            if (!startArray(reader, double[].class)) return null;
+            double[] values = new double[8];
+            int size = 0;
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                values[size++] = (Double) notNull(element.read(reader), double.class);
+            }
+            return Arrays.copyOf(values, size);
+        };
+        return reader -> {
+            if (!startArray(reader, component)) return null;
+            List<Object> values = new ArrayList<>();
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                values.add(notNull(element.read(reader), component));
+            }
+            Object array = Array.newInstance(component, values.size());
+            for (int i = 0; i < values.size(); i++) Array.set(array, i, values.get(i));
+            return array;
+        };
+    }
+
+    private static ValueReader collectionReader(Class<?> type, ValueReader element) {
+        boolean isSet = Set.class.isAssignableFrom(type);
+        if (!type.isAssignableFrom(isSet ? LinkedHashSet.class : ArrayList.class)) {
+            throw new JsonBindingException("Cannot bind to " + type.getName() + ", use List, Set or Collection");
+        }
+        return reader -> {
+            if (!startArray(reader, type)) return null;
+            Collection<Object> values = isSet ? new LinkedHashSet<>() : new ArrayList<>();
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                values.add(element.read(reader));
+            }
+            return values;
+        };
+    }
+
+    private static ValueReader mapReader(Class<?> type, ValueReader value) {
+        if (!type.isAssignableFrom(LinkedHashMap.class)) {
+            throw new JsonBindingException("Cannot bind to " + type.getName() + ", use Map");
+        }
+        return reader -> {
+            if (reader.currentEvent() == JsonEvent.VALUE_NULL) return null;
+            expect(reader, JsonEvent.START_OBJECT, type);
+            Map<String, Object> values = new LinkedHashMap<>();
+            while (reader.nextEvent() == JsonEvent.KEY_NAME) {
+                String key = reader.getString();
+                reader.nextEvent();
+                values.put(key, value.read(reader));
+            }
+            return values;
+        };
+    }
+
+    private static boolean startArray(JsonReader reader, Class<?> type) {
+        if (reader.currentEvent() == JsonEvent.VALUE_NULL) return false;
+        expect(reader, JsonEvent.START_ARRAY, type);
+        return true;
+    }
+
+    // false for null
+    private static boolean isNumber(JsonReader reader, Class<?> type) {
+        if (reader.currentEvent() == JsonEvent.VALUE_NULL) return false;
+        expect(reader, JsonEvent.VALUE_NUMBER, type);
+        return true;
+    }
+
+    private static boolean isInteger(JsonReader reader) {
+        return !reader.isDouble();
+    }
+
+    // a double, or an integer beyond a long, does not fit type
+    private static long longValue(JsonReader reader, Class<?> type) {
+        if (!isInteger(reader)) throw mismatch(reader, type);
+        try {
+            return reader.getLong();
+        } catch (NumberFormatException e) {
+            throw mismatch(reader, type);
+        }
+    }
+
+    private static Object notNull(Object value, Class<?> type) {
+        if (value == null && type.isPrimitive()) throw new JsonTypeException("null is not a " + type.getName());
+        return value;
+    }
+
+    private static void expect(JsonReader reader, JsonEvent event, Class<?> type) {
+        if (reader.currentEvent() != event) throw mismatch(reader, type);
+    }
+
+    private static JsonTypeException mismatch(JsonReader reader, Class<?> type) {
+        return new JsonTypeException("Cannot bind " + reader.currentEvent() + " to " + type.getSimpleName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> wrap(Class<T> type) {
+        if (!type.isPrimitive()) return type;
+        return (Class<T>) Array.get(Array.newInstance(type, 1), 0).getClass();
+    }
+}
@@ -0,0 +1,18 @@
+package com.dimcirui.jsonparser.binding;
+
+import java.io.IOException;
+
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+/**
+ * Reads one value of a fixed Java type, chosen once per type by DataBinder.
+ */
+@FunctionalInterface
+interface ValueReader {
+    /**
+     * @param reader its current event starts the value, afterwards it is the last event of the value
+     * @return the value, null for a JSON null
+     * @throws IOException
+     */
+    Object read(JsonReader reader) throws IOException;
+}
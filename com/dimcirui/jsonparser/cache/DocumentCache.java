@@ -0,0 +1,297 @@
+package com.dimcirui.jsonparser.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+/**
+ * A cache of parsed documents in front of a JSONParser, for inputs that are parsed again and again,
+ *      e.g. configuration or feature flags.
+ * e.g.
+ *      DocumentCache cache = new DocumentCache(new JSONParser(), 64L << 20);
+ *      JsonObject flags = (JsonObject) cache.fromJSON(json);
+ *
+ * Documents are found by a 64-bit hash of the input and confirmed by comparing the input itself.
+ * Results are frozen (see JsonObject.freeze) and shared by all callers, so they can not be modified.
+ *
+ * The cache is bounded by the estimated retained size of the documents, in bytes, not by their count.
+ * Eviction follows W-TinyLFU: a new document enters a small LRU window (1% of the weight),
+ *      documents leaving the window compete with the least recently used one of the main space,
+ *      and the one that has been requested less often recently (see FrequencySketch) is evicted.
+ * The main space is a segmented LRU: a document requested again while on probation becomes protected (80%).
+ *
+ * Lookups do not lock. Recording a hit takes the lock only if it is free,
+ *      so under contention some hits are not counted for eviction.
+ */
+public class DocumentCache {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int REMOVED = 3;
+
+    private final JSONParser parser;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final ConcurrentHashMap<Long, Node> map = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch = new FrequencySketch();
+    // sentinels of the LRU lists, the most recent node is next of the sentinel
+    private final Node[] queues = { new Node(), new Node(), new Node() };
+    private final long[] weights = new long[3];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param parser
+     * @param maximumWeight estimated bytes of the cached documents and their inputs
+     */
+    public DocumentCache(JSONParser parser, long maximumWeight) {
+        if (maximumWeight <= 0) throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        this.parser = parser;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(maximumWeight / 100, 1);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 4 / 5;
+        for (Node queue : queues) {
+            queue.prev = queue;
+            queue.next = queue;
+        }
+    }
+
+    /**
+     * Same as JSONParser.fromJSON(String), but the result is read-only and may be shared with other callers.
+     * @param json
+     * @return a frozen JsonObject or JsonArray
+     * @throws IOException
+     */
+    public Object fromJSON(String json) throws IOException {
+        long hash = hash(json);
+        Node node = map.get(hash);
+        if (node != null && (node.json == json || node.json.equals(json))) {
+            hits.increment();
+            if (lock.tryLock()) {
+                try {
+                    onHit(node);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return node.value;
+        }
+        misses.increment();
+
+        Object value = freeze(parser.fromJSON(json));
+        long weight = 64 + 40 + json.length() + weigh(value);
+        lock.lock();
+        try {
+            sketch.increment(hash);
+            // a different input with the same hash stays in the cache
+            if (weight > maximumWeight || map.containsKey(hash)) return value;
+            node = new Node(hash, json, value, weight);
+            map.put(hash, node);
+            sketch.ensureCapacity(map.size());
+            link(node, WINDOW);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return estimated bytes of the cached documents
+     */
+    public long weightedSize() {
+        lock.lock();
+        try {
+            return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            for (int queue = WINDOW; queue <= PROTECTED; queue++) {
+                for (Node node = queues[queue].next; node != queues[queue]; node = node.next) node.queue = REMOVED;
+                queues[queue].prev = queues[queue];
+                queues[queue].next = queues[queue];
+                weights[queue] = 0;
+            }
+            map.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onHit(Node node) {
+        if (node.queue == REMOVED) return;
+        sketch.increment(node.hash);
+        unlink(node);
+        if (node.queue == PROBATION) {
+            link(node, PROTECTED);
+            // the least recently used protected documents go back on probation
+            while (weights[PROTECTED] > protectedMaximum) {
+                Node demoted = queues[PROTECTED].prev;
+                unlink(demoted);
+                link(demoted, PROBATION);
+            }
+        }
+        else {
+            link(node, node.queue);
+        }
+    }
+
+    private void evict() {
+        // documents leaving the window become candidates at the head of probation
+        while (weights[WINDOW] > windowMaximum) {
+            Node candidate = queues[WINDOW].prev;
+            unlink(candidate);
+            link(candidate, PROBATION);
+        }
+
+        while (weights[WINDOW] + weights[PROBATION] + weights[PROTECTED] > maximumWeight) {
+            Node victim = queues[PROBATION].prev;
+            Node candidate = queues[PROBATION].next;
+            if (victim == queues[PROBATION]) {
+                // nothing on probation, take from protected, then from the window
+                remove(queues[PROTECTED].prev != queues[PROTECTED] ? queues[PROTECTED].prev : queues[WINDOW].prev);
+            }
+            // TinyLFU admission: the candidate replaces the victim only if it is requested more often
+            else if (candidate == victim || sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                remove(victim);
+            }
+            else {
+                remove(candidate);
+            }
+        }
+    }
+
+    private void link(Node node, int queue) {
+        Node head = queues[queue];
+        node.queue = queue;
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+        weights[queue] += node.weight;
+    }
+
+    private void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        weights[node.queue] -= node.weight;
+    }
+
+    private void remove(Node node) {
+        unlink(node);
+        node.queue = REMOVED;
+        map.remove(node.hash, node);
+        evictions.increment();
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof JsonObject) return ((JsonObject) value).freeze();
+        if (value instanceof JsonArray) return ((JsonArray) value).freeze();
+        return value;
+    }
+
+    /**
+     * Rough retained size of a parsed value in bytes, keys are not counted since they are interned.
+     * @param value
+     * @return
+     */
+    static long weigh(Object value) {
+        if (value instanceof JsonObject) {
+            JsonObject jsonObject = (JsonObject) value;
+            long weight = 64 + 16L * jsonObject.size();
+            for (Map.Entry<String, Object> entry : jsonObject.getAllKeyValue()) {
+                weight += weigh(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof JsonArray) {
+            long weight = 48;
+            for (Object element : (JsonArray) value) weight += 8 + weigh(element);
+            return weight;
+        }
+        if (value instanceof String) return 40 + ((String) value).length();
+        if (value == null || value instanceof Boolean) return 0;
+        return 16;
+    }
+
+    /**
+     * 64-bit hash of the chars, four at a time.
+     * @param s
+     * @return
+     */
+    static long hash(String s) {
+        int length = s.length();
+        long h = length * 0x9e3779b97f4a7c15L;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = s.charAt(i) | (long) s.charAt(i + 1) << 16 | (long) s.charAt(i + 2) << 32 | (long) s.charAt(i + 3) << 48;
+            h = Long.rotateLeft(h ^ block * 0xc2b2ae3d27d4eb4fL, 31) * 0x9e3779b97f4a7c15L;
+        }
+        for (; i < length; i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        // murmur3 finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * A cached document, linked in the list of its queue.
+     */
+    private static class Node {
+        final long hash;
+        final String json;
+        final Object value;
+        final long weight;
+        int queue;
+        Node prev;
+        Node next;
+
+        // a sentinel
+        Node() {
+            this(0, null, null, 0);
+        }
+
+        Node(long hash, String json, Object value, long weight) {
+            this.hash = hash;
+            this.json = json;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dimcirui.jsonparser.cache;
+
+/**
+ * Approximate access counts of recently seen documents, the TinyLFU part of DocumentCache.
+ * A count-min sketch of 4-bit counters, 16 per long, each hash is counted in 4 of them
+ *      and its frequency is the smallest of the 4.
+ * After 10 increments per counter all counters are halved, so old popularity fades.
+ * Not thread-safe, DocumentCache calls it under its lock.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long HALF_MASK = 0x7777777777777777L;
+    private static final int MIN_COUNTERS = 256;
+
+    private long[] table;
+    private int mask;
+    private int additions;
+    private int sampleSize;
+
+    FrequencySketch() {
+        resize(MIN_COUNTERS);
+    }
+
+    /**
+     * Grow to about one counter per cached document, the counts are dropped.
+     * @param entries
+     */
+    void ensureCapacity(int entries) {
+        if (entries > mask + 1) resize(Integer.highestOneBit(entries) << 1);
+    }
+
+    // counters is a power of two
+    private void resize(int counters) {
+        table = new long[Math.max(counters >>> 4, 1)];
+        mask = counters - 1;
+        sampleSize = 10 * counters;
+        additions = 0;
+    }
+
+    int frequency(long hash) {
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            int index = index(hash, i);
+            frequency = Math.min(frequency, (int) (table[index >>> 4] >>> ((index & 15) << 2)) & 15);
+        }
+        return frequency;
+    }
+
+    void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = index(hash, i);
+            int shift = (index & 15) << 2;
+            if (((table[index >>> 4] >>> shift) & 15) != 15) {
+                table[index >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & HALF_MASK;
+            additions >>>= 1;
+        }
+    }
+
+    private int index(long hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+}
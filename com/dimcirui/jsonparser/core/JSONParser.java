@@ -1,21 +1,423 @@
-package com.dimcirui.jsonparser.core;
-
-import com.dimcirui.jsonparser.parser.Parser;
-import com.dimcirui.jsonparser.lexer.CharReader;
-import com.dimcirui.jsonparser.lexer.TokenList;
-import com.dimcirui.jsonparser.lexer.Lexer;
-
-import java.io.IOException;
-import java.io.StringReader;
-
-
-public class JSONParser {
-    private Lexer tokenizer = new Lexer();
-    private Parser parser = new Parser();
-
-    public Object fromJSON(String json) throws IOException {
-        CharReader charReader = new CharReader(new StringReader(json));
-        TokenList tokenList = tokenizer.tokenize(charReader);
-        return parser.parse(tokenList);
-    }
+package com.dimcirui.jsonparser.core;
+
+import com.dimcirui.jsonparser.binding.DataBinder;
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.parser.ParallelParser;
+import com.dimcirui.jsonparser.parser.Parser;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.ByteSource;
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.DecompressingSource;
+import com.dimcirui.jsonparser.lexer.MappedFileSource;
+import com.dimcirui.jsonparser.metrics.ParseMetrics;
+import com.dimcirui.jsonparser.lexer.SymbolTable;
+import com.dimcirui.jsonparser.tape.TapeDocument;
+import com.dimcirui.jsonparser.lexer.TokenList;
+import com.dimcirui.jsonparser.lexer.TokenStream;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+import com.dimcirui.jsonparser.writer.JsonWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * Entry point of the library, safe to share between threads.
+ * Lexer, ByteLexer and Parser keep per-parse state in fields,
+ *      so every call borrows a set of them from a pool and returns it afterwards.
+ * The pool is a lock-free deque, a virtual thread never blocks or pins on it.
+ * All pooled lexers share one SymbolTable, which is thread-safe.
+ *
+ * A ParseMetrics passed to the constructor records size, tokens, depth, latency and allocation of every call,
+ *      without it each call only checks a null field.
+ */
+public class JSONParser {
+    private static final int DEFAULT_MAX_POOLED = Runtime.getRuntime().availableProcessors() * 2;
+
+    // keys repeat across documents, all lexers share one table
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final JsonWriter writer = new JsonWriter();
+    private final ParallelParser parallelParser = new ParallelParser(ForkJoinPool.commonPool(), symbolTable);
+
+    private final ConcurrentLinkedDeque<ParseContext> pool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+    // null if disabled
+    private final ParseMetrics metrics;
+
+    public JSONParser() {
+        this(DEFAULT_MAX_POOLED, null);
+    }
+
+    /**
+     * @param maxPooled contexts kept for reuse, more concurrent calls allocate and drop their own
+     */
+    public JSONParser(int maxPooled) {
+        this(maxPooled, null);
+    }
+
+    /**
+     * @param metrics records every call of this parser, may be shared with other parsers
+     */
+    public JSONParser(ParseMetrics metrics) {
+        this(DEFAULT_MAX_POOLED, metrics);
+    }
+
+    /**
+     * @param maxPooled
+     * @param metrics null to disable
+     */
+    public JSONParser(int maxPooled, ParseMetrics metrics) {
+        this.maxPooled = maxPooled;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the metrics of this parser, or null if disabled
+     */
+    public ParseMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Object fromJSON(String json) throws IOException {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(json.length());
+        ParseContext context = acquire();
+        try {
+            CharReader charReader = context.read(new StringReader(json));
+            TokenList tokenList = context.tokenizer.tokenize(charReader);
+            // the list ends with END_DOCUMENT, streams count only the tokens of the document
+            if (sample != null) sample.lexed(tokenList.size() - 1);
+            Object result = context.parser.parse(tokenList);
+            if (sample != null) sample.end(context.parser.getMaxDepth());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * Streaming mode: the parser pulls tokens from the lexer on demand,
+     *      so no TokenList is built and the tree grows while input is read.
+     * @param reader
+     * @return JsonObject or JsonArray
+     * @throws IOException
+     */
+    public Object fromJSON(Reader reader) throws IOException {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(-1);
+        ParseContext context = acquire();
+        try {
+            if (sample == null) {
+                return context.parser.parse(context.tokenizer.stream(context.read(reader)));
+            }
+            CharReader charReader = context.read(sample.count(reader));
+            Object result = context.parser.parse(sample.count(context.tokenizer.stream(charReader)));
+            sample.end(context.parser.getMaxDepth());
+            return result;
+        } catch (UncheckedIOException e) {
+            if (sample != null) sample.fail();
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * Parse UTF-8 encoded JSON without decoding it into a String first.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object fromJSON(byte[] json) {
+        return fromJSON(ByteBuffer.wrap(json));
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between position and limit of the buffer.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object fromJSON(ByteBuffer json) {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(json.remaining());
+        ParseContext context = acquire();
+        try {
+            if (sample == null) return context.parser.parse(context.byteTokenizer.stream(json));
+            Object result = context.parser.parse(sample.count(context.byteTokenizer.stream(json)));
+            sample.end(context.parser.getMaxDepth());
+            return result;
+        } catch (RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * Parse a UTF-8 encoded file through memory-mapped windows.
+     * The file is neither copied into the heap nor limited to 2 GB.
+     * @param path
+     * @return JsonObject or JsonArray
+     * @throws IOException
+     */
+    public Object fromFile(Path path) throws IOException {
+        try (MappedFileSource source = new MappedFileSource(path)) {
+            return parse(source, metrics == null ? -1 : Files.size(path));
+        }
+    }
+
+    /**
+     * Parse a gzip compressed file of UTF-8 encoded JSON, e.g. an archive.
+     * A background thread inflates into a small ring of buffers while this thread parses,
+     *      the file is never inflated as a whole, in memory or on disk.
+     * Each call starts a new thread, for many small archives reuse the threads of an executor
+     *      by parsing DecompressingSource.gzip(path, executor) with fromJSON(ByteSource).
+     * @param path
+     * @return JsonObject or JsonArray
+     * @throws IOException If the file can not be read or is not valid gzip.
+     */
+    public Object fromGzip(Path path) throws IOException {
+        try (DecompressingSource source = DecompressingSource.gzip(path)) {
+            return parse(source, -1);
+        }
+    }
+
+    /**
+     * Parse a gzip compressed stream, see fromGzip(Path).
+     * @param compressed closed when parsing ends
+     * @return JsonObject or JsonArray
+     * @throws IOException
+     */
+    public Object fromGzip(InputStream compressed) throws IOException {
+        try (DecompressingSource source = DecompressingSource.gzip(compressed)) {
+            return parse(source, -1);
+        }
+    }
+
+    /**
+     * Parse the UTF-8 encoded JSON of a ByteSource,
+     *      e.g. a DecompressingSource over the InputStream of another codec.
+     * @param source
+     * @return JsonObject or JsonArray
+     * @throws IOException
+     */
+    public Object fromJSON(ByteSource source) throws IOException {
+        return parse(source, -1);
+    }
+
+    private Object parse(ByteSource source, long size) throws IOException {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(size);
+        ParseContext context = acquire();
+        try {
+            if (sample == null) return context.parser.parse(context.byteTokenizer.stream(source));
+            Object result = context.parser.parse(sample.count(context.byteTokenizer.stream(source)));
+            sample.end(context.parser.getMaxDepth());
+            return result;
+        } catch (UncheckedIOException e) {
+            if (sample != null) sample.fail();
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * Bind the document straight into a record, a POJO or any other type DataBinder supports,
+     *      without building a JsonObject/JsonArray tree first.
+     * @param json
+     * @param type
+     * @return
+     * @throws IOException
+     * @throws JsonTypeException If a value does not fit its target type.
+     */
+    public <T> T fromJSON(String json, Class<T> type) throws IOException {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(json.length());
+        ParseContext context = acquire();
+        try {
+            CharReader charReader = context.read(new StringReader(json));
+            context.tokenizer.keepNumberText(DataBinder.needsNumberText(type));
+            TokenStream tokens = context.tokenizer.stream(charReader);
+            JsonReader reader = new JsonReader(sample == null ? tokens : sample.count(tokens));
+            T value = bind(reader, type);
+            if (sample != null) sample.end(reader.getMaxDepth());
+            return value;
+        } catch (IOException | RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    /**
+     * Bind UTF-8 encoded JSON, see fromJSON(String, Class).
+     * @param json
+     * @param type
+     * @return
+     */
+    public <T> T fromJSON(byte[] json, Class<T> type) {
+        ParseMetrics.Sample sample = metrics == null ? null : metrics.begin(json.length);
+        ParseContext context = acquire();
+        try {
+            context.byteTokenizer.keepNumberText(DataBinder.needsNumberText(type));
+            TokenStream tokens = context.byteTokenizer.stream(json);
+            JsonReader reader = new JsonReader(sample == null ? tokens : sample.count(tokens));
+            T value = bind(reader, type);
+            if (sample != null) sample.end(reader.getMaxDepth());
+            return value;
+        } catch (IOException e) {
+            if (sample != null) sample.fail();
+            // a ByteLexer over a byte[] does no I/O
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            if (sample != null) sample.fail();
+            throw e;
+        } finally {
+            release(context);
+        }
+    }
+
+    private <T> T bind(JsonReader reader, Class<T> type) throws IOException {
+        T value = DataBinder.read(reader, type);
+        if (reader.nextEvent() != JsonEvent.END_DOCUMENT) {
+            throw new JsonParseException("Unexpected content after the document");
+        }
+        return value;
+    }
+
+    /**
+     * Parallel mode for huge documents whose root is an array:
+     *      the top-level elements are parsed on the common fork-join pool.
+     * Returns the same result, or throws the same error, as fromJSON(byte[]).
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object fromJSONParallel(byte[] json) {
+        if (metrics == null) return parallelParser.parse(json);
+        return measure(json.length, () -> parallelParser.parse(json));
+    }
+
+    /**
+     * Parallel mode for the UTF-8 encoded bytes between position and limit of the buffer,
+     *      e.g. a memory-mapped file.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object fromJSONParallel(ByteBuffer json) {
+        if (metrics == null) return parallelParser.parse(json);
+        return measure(json.remaining(), () -> parallelParser.parse(json));
+    }
+
+    /**
+     * Parse into the compact tape representation instead of a JsonObject/JsonArray tree.
+     * @param json
+     * @return TapeObject or TapeArray
+     */
+    public Object fromJSONTape(String json) {
+        if (metrics == null) return TapeDocument.parse(json);
+        return measure(json.length(), () -> TapeDocument.parse(json));
+    }
+
+    /**
+     * Lazy mode: the document is checked and indexed in one pass up front, without decoding any value,
+     *      values and nested containers are decoded the first time they are read.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object fromJSONLazy(String json) {
+        if (metrics == null) return TapeDocument.parseLazy(json);
+        return measure(json.length(), () -> TapeDocument.parseLazy(json));
+    }
+
+    // entry points without a TokenStream to count, only size and time are recorded
+    private Object measure(long size, Supplier<Object> parse) {
+        ParseMetrics.Sample sample = metrics.begin(size);
+        try {
+            Object result = parse.get();
+            sample.end();
+            return result;
+        } catch (RuntimeException e) {
+            sample.fail();
+            throw e;
+        }
+    }
+
+    /**
+     * Serialize a parsed value back to compact JSON.
+     * Use JsonWriter directly for pretty-print or to write to a Writer/OutputStream.
+     * @param value JsonObject, JsonArray or a scalar value
+     * @return
+     */
+    public String toJSON(Object value) {
+        return writer.toJSON(value);
+    }
+
+    private ParseContext acquire() {
+        ParseContext context = pool.pollFirst();
+        if (context == null) return new ParseContext(symbolTable);
+        pooled.decrementAndGet();
+        return context;
+    }
+
+    // a context that failed mid-parse is reusable, every entry point resets the lexer
+    private void release(ParseContext context) {
+        context.clear();
+        if (pooled.incrementAndGet() <= maxPooled) {
+            pool.offerFirst(context);
+        }
+        else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Lexers and parser used by one call at a time.
+     */
+    private static class ParseContext {
+        private final Lexer tokenizer;
+        private final ByteLexer byteTokenizer;
+        private final Parser parser = new Parser();
+        // its buffer keeps the size it grew to
+        private final CharReader charReader = new CharReader(null);
+
+        ParseContext(SymbolTable symbolTable) {
+            tokenizer = new Lexer(symbolTable);
+            byteTokenizer = new ByteLexer(symbolTable);
+        }
+
+        CharReader read(Reader reader) {
+            charReader.reset(reader);
+            return charReader;
+        }
+
+        // do not keep the input of the call alive, e.g. a byte[], a mapped window or the buffers of a source
+        void clear() {
+            charReader.reset(null);
+            tokenizer.reset();
+            // only a binding call turns number text on
+            tokenizer.keepNumberText(false);
+            byteTokenizer.keepNumberText(false);
+            byteTokenizer.reset();
+            parser.reset();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.dimcirui.jsonparser.exception;
+
+public class JsonBindingException extends RuntimeException{
+    public JsonBindingException(String message) {
+        super(message);
+    }
+
+    public JsonBindingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
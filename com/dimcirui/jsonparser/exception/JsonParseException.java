@@ -1,7 +1,11 @@
-package com.dimcirui.jsonparser.exception;
-
-public class JsonParseException extends RuntimeException{
-    public JsonParseException(String message) {
-        super(message);
-    }
-}
+package com.dimcirui.jsonparser.exception;
+
+public class JsonParseException extends RuntimeException{
+    public JsonParseException(String message) {
+        super(message);
+    }
+
+    public JsonParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
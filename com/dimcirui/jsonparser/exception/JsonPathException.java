@@ -0,0 +1,7 @@
+package com.dimcirui.jsonparser.exception;
+
+public class JsonPathException extends RuntimeException{
+    public JsonPathException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
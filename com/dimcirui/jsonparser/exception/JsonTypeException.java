@@ -1,7 +1,7 @@
-package com.dimcirui.jsonparser.exception;
-
-public class JsonTypeException extends RuntimeException{
-    public JsonTypeException(String message) {
-        super(message);
-    }
-}
+package com.dimcirui.jsonparser.exception;
+
+public class JsonTypeException extends RuntimeException{
+    public JsonTypeException(String message) {
+        super(message);
+    }
+}
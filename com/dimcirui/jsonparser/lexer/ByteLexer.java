@@ -0,0 +1,444 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * Lexer for UTF-8 encoded input in a byte[], a ByteBuffer or a ByteSource.
+ * Punctuation, numbers and literals are read as raw bytes,
+ *      only the content of strings is decoded into chars.
+ * Produces the same tokens as Lexer.
+ */
+public class ByteLexer {
+    // smallest code point for a sequence of 1, 2 or 3 continuation bytes
+    private static final int[] MIN_CODE_POINT = { 0, 0x80, 0x800, 0x10000 };
+
+    private ByteSource source;
+    private ByteBuffer buffer;
+    // read position and end of the current buffer, absolute indexes into buffer
+    private int pos;
+    private int limit;
+
+    // decoded content of the current string
+    private char[] chars = new char[64];
+    private int length;
+    private NumberBuilder numberBuilder = new NumberBuilder();
+    private ByteScanner scanner = ByteScanner.get();
+
+    private SymbolTable symbolTable;
+    private KeyTracker keyTracker = new KeyTracker();
+
+    private final TokenList tokenList;
+
+    public ByteLexer() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable shared with other lexers, so keys are canonical across parses
+     */
+    public ByteLexer(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        this.tokenList = new TokenList(symbolTable);
+    }
+
+    /**
+     * Keep every number as written, so its token returns the exact text, see NumberBuilder.keepText.
+     * Off by default, numbers are then only kept as text if they do not fit in a long.
+     * @param keepNumberText
+     */
+    public void keepNumberText(boolean keepNumberText) {
+        numberBuilder.keepText(keepNumberText);
+    }
+
+    public TokenList tokenize(byte[] bytes) {
+        return tokenize(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Tokenize the bytes between position and limit of the buffer.
+     * The position of the buffer is not changed.
+     * @param buffer
+     * @return a list owned by this lexer, valid until its next call of tokenize
+     */
+    public TokenList tokenize(ByteBuffer buffer) {
+        reset(buffer, null);
+        tokenList.clear();
+        Token token;
+        do {
+            token = nextToken();
+            tokenList.add(token);
+        } while (token.getTokenType() != TokenType.END_DOCUMENT);
+        return tokenList;
+    }
+
+    public TokenStream stream(byte[] bytes) {
+        return stream(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Read tokens lazily, see Lexer.stream.
+     * @param buffer
+     * @return
+     */
+    public TokenStream stream(ByteBuffer buffer) {
+        reset(buffer, null);
+        return new ByteTokenStream();
+    }
+
+    /**
+     * Read tokens lazily from consecutive buffers.
+     * IOExceptions from the source are rethrown as UncheckedIOException.
+     * @param source
+     * @return
+     */
+    public TokenStream stream(ByteSource source) {
+        reset(null, source);
+        return new ByteTokenStream();
+    }
+
+    /**
+     * Drop the input of the last call and the tokens of the last tokenize,
+     *      so a lexer that is kept for reuse does not keep them alive.
+     */
+    public void reset() {
+        reset(null, null);
+        tokenList.clear();
+    }
+
+    private void reset(ByteBuffer buffer, ByteSource source) {
+        keyTracker.reset();
+        this.source = source;
+        this.buffer = buffer;
+        this.pos = buffer == null ? 0 : buffer.position();
+        this.limit = buffer == null ? 0 : buffer.limit();
+    }
+
+    /**
+     * move to the next non-empty buffer of the source.
+     * @return false at the end of input
+     */
+    private boolean nextBuffer() {
+        if (source == null) return false;
+        try {
+            do {
+                buffer = source.next();
+                if (buffer == null) {
+                    source = null;
+                    return false;
+                }
+                pos = buffer.position();
+                limit = buffer.limit();
+            } while (pos >= limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * Read one token from [from, to) of the buffer, for PushLexer.
+     * The range holds the whole token, the key tracking goes on from the previous call.
+     * @param buffer
+     * @param from absolute index into the buffer
+     * @param to absolute index into the buffer
+     * @return the token, it ends at position()
+     */
+    Token nextToken(ByteBuffer buffer, int from, int to) {
+        this.source = null;
+        this.buffer = buffer;
+        this.pos = from;
+        this.limit = to;
+        return nextToken();
+    }
+
+    int position() {
+        return pos;
+    }
+
+    private Token nextToken() {
+        Token token = readToken();
+        keyTracker.onToken(token.getTokenType());
+        return token;
+    }
+
+    private Token readToken() {
+        byte b;
+        while (true) {
+            if (pos >= limit && !nextBuffer()) {
+                return new Token(TokenType.END_DOCUMENT, null);
+            }
+
+            pos = scanner.skipWhiteSpace(buffer, pos, limit);
+            if (pos < limit) {
+                b = buffer.get(pos++);
+                break;
+            }
+        }
+
+        switch (b) {
+            case '{': return new Token(TokenType.BEGIN_OBJECT, "{");
+            case '}': return new Token(TokenType.END_OBJECT, "}");
+            case '[': return new Token(TokenType.BEGIN_ARRAY, "[");
+            case ']': return new Token(TokenType.END_ARRAY, "]");
+            case 'n': return new Token(TokenType.NULL, readNull());
+            case '"': return new Token(TokenType.STRING, readString());
+            case 't':
+            case 'f': return new Token(TokenType.BOOLEAN, readBoolean(b));
+            case ':': return new Token(TokenType.SEP_COLON, ":");
+            case ',': return new Token(TokenType.SEP_COMMA, ",");
+        }
+
+        if (b == '-' || isDigit(b)) {
+            return readNumber(b);
+        }
+
+        throw new JsonParseException("Illegal character: " + (char) (b & 0xFF));
+    }
+
+    private boolean isDigit(int b) {
+        return ('0' <= b && b <= '9');
+    }
+
+    // next byte as 0~255, or -1 at the end of input
+    private int read() {
+        if (pos >= limit && !nextBuffer()) return -1;
+        return buffer.get(pos++) & 0xFF;
+    }
+
+    private int peek() {
+        if (pos >= limit && !nextBuffer()) return -1;
+        return buffer.get(pos) & 0xFF;
+    }
+
+    private void append(char ch) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = ch;
+    }
+
+    // bytes [pos, end) are ASCII
+    private void appendAscii(int end) {
+        int count = end - pos;
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(length + count, length * 2));
+        }
+        for (int i = pos; i < end; i++) {
+            chars[length++] = (char) buffer.get(i);
+        }
+        pos = end;
+    }
+
+    private String readNull() {
+        if (!matchNextBytes("ull")) {
+            throw new JsonParseException("Invalid JSON string for null value");
+        }
+        return "null";
+    }
+
+    private String readBoolean(byte first) {
+        if (first == 't') {
+            if (!matchNextBytes("rue")) {
+                throw new JsonParseException("Invalid JSON string for true value");
+            }
+            return "true";
+        }
+        else {
+            if (!matchNextBytes("alse")) {
+                throw new JsonParseException("Invalid JSON string for false value");
+            }
+            return "false";
+        }
+    }
+
+    private boolean matchNextBytes(String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (read() != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     * Digits go straight into the NumberBuilder,
+     *      stops at the first byte that is not part of the number.
+     */
+    private Token readNumber(int first) {
+        numberBuilder.reset();
+        int b = first;
+        if (b == '-') {
+            numberBuilder.sign();
+            b = read();
+        }
+        if (!isDigit(b)) {
+            throw new JsonParseException("Invalid negative number");
+        }
+        numberBuilder.digit(b);
+        if (b != '0') {
+            while (isDigit(peek())) numberBuilder.digit(read());
+        }
+
+        if (peek() == '.') {
+            numberBuilder.point();
+            read();
+            if (!isDigit(peek())) {
+                throw new JsonParseException("Invalid number format: Not a number.");
+            }
+            while (isDigit(peek())) numberBuilder.fractionDigit(read());
+        }
+
+        if (peek() == 'e' || peek() == 'E') {
+            numberBuilder.exponentMark(read());
+            if (peek() == '+' || peek() == '-') numberBuilder.exponentSign(read());
+            if (!isDigit(peek())) {
+                throw new JsonParseException("Invalid number format: Missing number after e/E.");
+            }
+            while (isDigit(peek())) numberBuilder.exponentDigit(read());
+        }
+
+        return numberBuilder.toToken();
+    }
+
+    /**
+     * Decode the string up to the closing quote.
+     * Runs of plain ASCII are found by the ByteScanner and copied in bulk.
+     * Escape sequences are decoded, like Lexer.readString.
+     * Keys are looked up in the symbol table instead of creating a new String.
+     */
+    private String readString() {
+        length = 0;
+        while (true) {
+            if (pos < limit) {
+                int plain = scanner.skipPlain(buffer, pos, limit);
+                if (plain > pos) appendAscii(plain);
+            }
+            int b = read();
+            if (b == -1) throw new JsonParseException("Unterminated string");
+            if (b == '"') {
+                if (keyTracker.isKey()) return symbolTable.intern(chars, 0, length);
+                return new String(chars, 0, length);
+            }
+            if (b == '\r' || b == '\n') throw new JsonParseException("Invalid character");
+
+            if (b == '\\') {
+                b = read();
+                if (b == 'u') {
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int hex = Escapes.hexValue(read());
+                        if (hex < 0) throw new JsonParseException("Invalid character");
+                        code = (code << 4) | hex;
+                    }
+                    append((char) code);
+                }
+                else {
+                    int unescaped = Escapes.unescape(b);
+                    if (unescaped < 0) throw new JsonParseException("Invalid character");
+                    append((char) unescaped);
+                }
+            }
+            else if (b < 0x80) append((char) b);
+            else readMultiByte(b);
+        }
+    }
+
+    // 110xxxxx 10xxxxxx, 1110xxxx 10xxxxxx 10xxxxxx, 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+    private void readMultiByte(int b) {
+        int codePoint;
+        int count;
+        if ((b & 0xE0) == 0xC0) {
+            codePoint = b & 0x1F;
+            count = 1;
+        }
+        else if ((b & 0xF0) == 0xE0) {
+            codePoint = b & 0x0F;
+            count = 2;
+        }
+        else if ((b & 0xF8) == 0xF0) {
+            codePoint = b & 0x07;
+            count = 3;
+        }
+        else throw new JsonParseException("Invalid UTF-8 byte: " + b);
+
+        for (int i = 0; i < count; i++) {
+            int next = read();
+            if ((next & 0xC0) != 0x80) throw new JsonParseException("Invalid UTF-8 sequence");
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        // a code point must use the shortest form, and surrogates are not encoded on their own
+        if (codePoint < MIN_CODE_POINT[count]) throw new JsonParseException("Overlong UTF-8 sequence");
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            throw new JsonParseException("UTF-8 encoded surrogate");
+        }
+        if (codePoint > Character.MAX_CODE_POINT) throw new JsonParseException("UTF-8 sequence beyond U+10FFFF");
+
+        if (codePoint < 0x10000) {
+            append((char) codePoint);
+        }
+        else {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    /**
+     * Raw skip to the bracket that closes the current container, see TokenStream.skipContainer.
+     * The ByteScanner finds it, one buffer of the source at a time.
+     * @return END_OBJECT or END_ARRAY
+     * @throws JsonParseException If the input ends first.
+     */
+    private TokenType skipContainer() {
+        ByteScanner.SkipState state = new ByteScanner.SkipState();
+        while (true) {
+            if (pos >= limit && !nextBuffer()) {
+                throw new JsonParseException("Unterminated container");
+            }
+            int end = scanner.skipContainer(buffer, pos, limit, state);
+            if (end >= 0) {
+                pos = end;
+                TokenType tokenType = buffer.get(end - 1) == '}' ? TokenType.END_OBJECT : TokenType.END_ARRAY;
+                keyTracker.onToken(tokenType);
+                return tokenType;
+            }
+            pos = limit;
+        }
+    }
+
+    private class ByteTokenStream implements TokenStream {
+        private Token previous;
+        private Token current;
+        private boolean ended = false;
+
+        @Override
+        public Token next() {
+            previous = current;
+            current = nextToken();
+            if (current.getTokenType() == TokenType.END_DOCUMENT) ended = true;
+            return current;
+        }
+
+        @Override
+        public boolean hasMore() {
+            return !ended;
+        }
+
+        @Override
+        public Token peekPrevious() {
+            return previous;
+        }
+
+        @Override
+        public Token skipContainer() {
+            TokenType tokenType = ByteLexer.this.skipContainer();
+            previous = current;
+            current = new Token(tokenType, tokenType == TokenType.END_OBJECT ? "}" : "]");
+            return current;
+        }
+    }
+}
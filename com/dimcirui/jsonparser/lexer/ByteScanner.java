@@ -0,0 +1,184 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bulk scanning primitives over UTF-8 bytes, used by ByteLexer and StructuralIndex.
+ * This class is the scalar implementation, one byte per step.
+ *
+ * When the JVM runs with --add-modules jdk.incubator.vector,
+ *      get() returns VectorByteScanner, which classifies a whole vector of bytes per step.
+ * Both give exactly the same results, ByteScannerTest compares them.
+ * Set -Djsonparser.vector=false to force the scalar path.
+ */
+public class ByteScanner {
+    private static final ByteScanner SCALAR = new ByteScanner();
+    private static final ByteScanner VECTOR = loadVector();
+    private static final ByteScanner INSTANCE =
+            VECTOR != null && !"false".equals(System.getProperty("jsonparser.vector")) ? VECTOR : SCALAR;
+
+    /**
+     * @return the scanner used by the lexers
+     */
+    public static ByteScanner get() {
+        return INSTANCE;
+    }
+
+    public static ByteScanner scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return the vector scanner, or null if the Vector API is not available
+     */
+    public static ByteScanner vector() {
+        return VECTOR;
+    }
+
+    // the Vector API classes are only linked when VectorByteScanner is loaded
+    private static ByteScanner loadVector() {
+        try {
+            return (ByteScanner) Class.forName("com.dimcirui.jsonparser.lexer.VectorByteScanner")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * Skip string content that can be copied as it is.
+     * @param buffer
+     * @param from absolute index into the buffer
+     * @param to absolute index into the buffer
+     * @return index of the first '"', '\\', control char or non-ASCII byte in [from, to), or to
+     */
+    public int skipPlain(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        while (i < to) {
+            byte b = buffer.get(i);
+            // non-ASCII bytes are negative
+            if (b < 0x20 || b == '"' || b == '\\') break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Find the bracket that closes the current container, without lexing anything in between.
+     * A backslash escapes the next byte wherever it is, like index().
+     * @param buffer
+     * @param from absolute index into the buffer
+     * @param to absolute index into the buffer
+     * @param state depth, string and escape state, updated when the bytes run out
+     * @return index after the closing bracket, or -1 if it is not in [from, to)
+     */
+    public int skipContainer(ByteBuffer buffer, int from, int to, SkipState state) {
+        int depth = state.depth;
+        boolean inString = state.inString;
+        boolean escaped = state.escaped;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (escaped) {
+                escaped = false;
+                continue;
+            }
+            switch (b) {
+                case '\\':
+                    escaped = true;
+                    break;
+                case '"':
+                    inString = !inString;
+                    break;
+                case '{':
+                case '[':
+                    if (!inString) depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (!inString && --depth == 0) {
+                        state.depth = 0;
+                        return i + 1;
+                    }
+                    break;
+            }
+        }
+        state.depth = depth;
+        state.inString = inString;
+        state.escaped = escaped;
+        return -1;
+    }
+
+    /**
+     * Where skipContainer stopped when the bytes ran out.
+     */
+    public static class SkipState {
+        // containers still open, 1 right after the opening bracket
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+    }
+
+    /**
+     * @param buffer
+     * @param from absolute index into the buffer
+     * @param to absolute index into the buffer
+     * @return index of the first byte in [from, to) that is not JSON whitespace, or to
+     */
+    public int skipWhiteSpace(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') break;
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Set the bits of StructuralIndex for the bytes in [start, end).
+     * A backslash escapes the next byte wherever it is, an escaped byte is never structural.
+     * @param buffer
+     * @param start absolute index of bit 0
+     * @param end
+     * @param bits zeroed, one bit per byte
+     * @return false if the input ends inside a string
+     */
+    public boolean index(ByteBuffer buffer, int start, int end, long[] bits) {
+        return index(buffer, start, start, end, bits, false, false);
+    }
+
+    /**
+     * Continue indexing at from, with the state left by the bytes before it.
+     */
+    protected boolean index(ByteBuffer buffer, int start, int from, int end, long[] bits,
+                            boolean inString, boolean escaped) {
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (escaped) {
+                escaped = false;
+                continue;
+            }
+            if (b == '\\') {
+                escaped = true;
+                continue;
+            }
+            if (b == '"') {
+                inString = !inString;
+                set(bits, i - start);
+            }
+            else if (!inString && isStructural(b)) {
+                set(bits, i - start);
+            }
+        }
+        return !inString;
+    }
+
+    private static boolean isStructural(byte b) {
+        return (b == '{' || b == '}' || b == '[' ||
+                b == ']' || b == ',' || b == ':');
+    }
+
+    private static void set(long[] bits, int offset) {
+        bits[offset >>> 6] |= 1L << offset;
+    }
+}
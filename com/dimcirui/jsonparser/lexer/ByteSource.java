@@ -0,0 +1,19 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Supplies input to ByteLexer as a sequence of buffers,
+ *      e.g. consecutive windows of a memory-mapped file.
+ * A token may span two buffers.
+ */
+public interface ByteSource {
+    /**
+     * the next buffer to read from position to limit.
+     * The buffer returned before is no longer used by the lexer.
+     * @return null at the end of input
+     * @throws IOException
+     */
+    ByteBuffer next() throws IOException;
+}
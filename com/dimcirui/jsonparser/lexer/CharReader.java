@@ -1,80 +1,194 @@
-
-package com.dimcirui.jsonparser.lexer;
-
-import java.io.IOException;
-import java.io.Reader;
-
-/**
- * Read characters from a string stream.
- */
-public class CharReader {
-    private static final int BUFFER_SIZE = 1024;
-
-    // buffer position
-    private int pos = 0;
-    // buffer ends
-    private int size = 0;
-
-    private char[] buffer;
-    private Reader reader;
-
-    public CharReader(Reader reader) {
-        this.buffer = new char[BUFFER_SIZE];
-        this.reader = reader;
-    }
-
-    /**
-     * check if there're any unread characters.
-     * @return
-     */
-    public boolean hasMore() throws IOException {
-        if (pos < size) {
-            return true;
-        }
-        fillBuffer();
-        return pos < size;
-    }
-
-    /**
-     * read cur character without moving.
-     * if no such character, return char '-1'.
-     * @return
-     */
-    public char peek() throws IOException{
-        if (!hasMore()) {
-            return (char) -1;
-        }
-        return buffer[Math.max(0, pos - 1)];
-    }
-
-    /**
-     * read the next character and move to it.
-     * if no such character, return char '-1'.
-     * @return
-     */
-    public char next() throws IOException {
-        if (!hasMore()) {
-            return (char) -1;
-        }
-        return buffer[pos++];
-    }
-
-    /**
-     * move to prev one without return.
-     * if already the first character, do nothing.
-     */
-    public void back() {
-        if (pos > 0) pos--;
-    }
-
-    /**
-     * read characters from input source and fill buffer
-     */
-    void fillBuffer() throws IOException {
-        int n = reader.read(buffer);
-        if (n == -1) return;
-
-        this.pos = 0;
-        this.size = n;
-    }
-}
\ No newline at end of file
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Read characters from a string stream.
+ * The buffer starts small and doubles, up to MAX_BUFFER_SIZE, each time a read fills it completely,
+ *      so short inputs stay cheap and long streams are read in large blocks.
+ * The last character read survives a refill, so back() and peek() also work right after one.
+ *
+ * Besides next(), the lexer reads runs of characters straight from buffer():
+ *      the scan methods move over a run inside the buffer and return where it ends.
+ * A run also ends at limit(), then hasMore() refills the buffer and the scan goes on.
+ */
+public class CharReader {
+    public static final int MAX_BUFFER_SIZE = 1 << 16;
+    private static final int BUFFER_SIZE = 1024;
+
+    // buffer position
+    private int pos = 0;
+    // buffer ends
+    private int size = 0;
+    private boolean eof = false;
+
+    private char[] buffer;
+    private Reader reader;
+
+    public CharReader(Reader reader) {
+        this(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * @param reader
+     * @param bufferSize initial size of the buffer, it grows while reads fill it
+     */
+    public CharReader(Reader reader, int bufferSize) {
+        this.buffer = new char[Math.max(bufferSize, 2)];
+        this.reader = reader;
+    }
+
+    /**
+     * read from another source, the buffer is kept.
+     * @param reader
+     */
+    public void reset(Reader reader) {
+        this.reader = reader;
+        this.pos = 0;
+        this.size = 0;
+        this.eof = false;
+    }
+
+    /**
+     * check if there're any unread characters.
+     * @return
+     */
+    public boolean hasMore() throws IOException {
+        if (pos < size) {
+            return true;
+        }
+        fillBuffer();
+        return pos < size;
+    }
+
+    /**
+     * the character last returned by next(), without moving.
+     * if no character was read yet, return char '-1'.
+     * @return
+     */
+    public char peek() {
+        if (pos == 0) {
+            return (char) -1;
+        }
+        return buffer[pos - 1];
+    }
+
+    /**
+     * read the next character and move to it.
+     * if no such character, return char '-1'.
+     * @return
+     */
+    public char next() throws IOException {
+        if (!hasMore()) {
+            return (char) -1;
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * move to prev one without return.
+     * Going back one character always works, more only within the current buffer.
+     * if already the first character, do nothing.
+     */
+    public void back() {
+        if (pos > 0) pos--;
+    }
+
+    /**
+     * the buffer the scan methods work on, valid until the next refill.
+     * @return
+     */
+    public char[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * index of the next unread character in buffer().
+     * @return
+     */
+    public int position() {
+        return pos;
+    }
+
+    /**
+     * end of the characters in buffer().
+     * @return
+     */
+    public int limit() {
+        return size;
+    }
+
+    /**
+     * Skip a run of whitespace, refilling the buffer as needed.
+     * @return false at the end of input
+     * @throws IOException
+     */
+    public boolean skipWhitespace() throws IOException {
+        while (true) {
+            while (pos < size) {
+                char ch = buffer[pos];
+                if (ch != ' ' && ch != '\t' && ch != '\n' && ch != '\r') return true;
+                pos++;
+            }
+            fillBuffer();
+            if (pos >= size) return false;
+        }
+    }
+
+    /**
+     * Move over the plain content of a string: up to the next '"', '\\', '\r' or '\n', or limit().
+     * @return end of the run in buffer(), which started at the old position()
+     */
+    public int scanString() {
+        char[] buffer = this.buffer;
+        int i = pos;
+        int end = size;
+        while (i < end) {
+            char ch = buffer[i];
+            if (ch == '"' || ch == '\\' || ch == '\n' || ch == '\r') break;
+            i++;
+        }
+        pos = i;
+        return i;
+    }
+
+    /**
+     * Move over a run of digits, up to the first non-digit or limit().
+     * @return end of the run in buffer(), which started at the old position()
+     */
+    public int scanDigits() {
+        char[] buffer = this.buffer;
+        int i = pos;
+        int end = size;
+        while (i < end && (char) (buffer[i] - '0') <= 9) i++;
+        pos = i;
+        return i;
+    }
+
+    /**
+     * read characters from input source and fill buffer.
+     * The last character read is kept in front, for back() and peek().
+     */
+    void fillBuffer() throws IOException {
+        if (eof) return;
+        int keep = pos > 0 ? 1 : 0;
+        char last = keep == 1 ? buffer[pos - 1] : 0;
+        char[] target = buffer;
+        // the last read filled the buffer, read more at once
+        if (size == buffer.length && buffer.length < MAX_BUFFER_SIZE) {
+            target = new char[buffer.length * 2];
+        }
+
+        int n = reader.read(target, keep, target.length - keep);
+        if (n == -1) {
+            eof = true;
+            return;
+        }
+
+        if (keep == 1) target[0] = last;
+        this.buffer = target;
+        this.pos = keep;
+        this.size = keep + n;
+    }
+}
@@ -0,0 +1,208 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses on a background thread while ByteLexer reads, so inflating and parsing overlap.
+ * The thread fills a small ring of reusable buffers, a buffer goes back to it
+ *      as soon as the lexer asks for the next one (see ByteSource.next).
+ * Only the ring is in memory, the input is never inflated as a whole.
+ *
+ * Any codec that is an InputStream of the decompressed bytes can be used,
+ *      gzip(...) wraps a GZIPInputStream of the JDK.
+ * e.g.
+ *      try (DecompressingSource source = DecompressingSource.gzip(path)) {
+ *          Object json = jsonParser.fromJSON(source);
+ *      }
+ * Close the source if it is not read to the end, otherwise the thread waits for a free buffer forever.
+ *
+ * By default every source starts a new daemon thread, which costs more than inflating a small archive.
+ * For many small inputs, pass an Executor with a few threads to reuse, and close the source as above:
+ *      try (DecompressingSource source = DecompressingSource.gzip(path, executor)) {...}
+ * The executor must run the task on another thread, a task runs until its input ends or the source is closed.
+ */
+public class DecompressingSource implements ByteSource, Closeable {
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final int BUFFERS = 4;
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    // how long close waits for the thread to stop on the interrupt, before it closes the input itself
+    private static final long CLOSE_WAIT_MILLIS = 100;
+    // queued after the last buffer
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+    private static final Executor NEW_THREAD = task -> {
+        Thread thread = new Thread(task, "json-decompress");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final InputStream input;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    // the thread running decompress, null before it starts and after it is done, guarded by this
+    private Thread worker;
+    // counted down when the thread is done, it has closed the input then
+    private final CountDownLatch done = new CountDownLatch(1);
+    // set by the thread before it queues END, an error caused by close is not kept
+    private IOException failure;
+    private volatile boolean closed = false;
+
+    // the buffer the lexer is reading
+    private ByteBuffer current;
+    private boolean ended = false;
+
+    public DecompressingSource(InputStream input) {
+        this(input, BUFFER_SIZE, BUFFERS);
+    }
+
+    public DecompressingSource(InputStream input, int bufferSize, int buffers) {
+        this(input, bufferSize, buffers, NEW_THREAD);
+    }
+
+    /**
+     * @param input the decompressed bytes, read on the background thread and closed by it
+     * @param bufferSize bytes per buffer
+     * @param buffers size of the ring, at least 2 so one can be filled while the other is read
+     * @param executor runs the decompression, on a thread other than the caller's
+     */
+    public DecompressingSource(InputStream input, int bufferSize, int buffers, Executor executor) {
+        if (buffers < 2) throw new IllegalArgumentException("At least 2 buffers are needed: " + buffers);
+        this.input = input;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        // one more for END
+        this.filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) free.add(ByteBuffer.allocate(bufferSize));
+        executor.execute(this::decompress);
+    }
+
+    /**
+     * @param compressed gzip data, closed with the source
+     * @return
+     * @throws IOException If the gzip header is invalid.
+     */
+    public static DecompressingSource gzip(InputStream compressed) throws IOException {
+        return gzip(compressed, NEW_THREAD);
+    }
+
+    /**
+     * @param compressed gzip data, closed with the source
+     * @param executor runs the decompression, see the constructor
+     * @return
+     * @throws IOException If the gzip header is invalid.
+     */
+    public static DecompressingSource gzip(InputStream compressed, Executor executor) throws IOException {
+        return new DecompressingSource(new GZIPInputStream(compressed, GZIP_BUFFER_SIZE), BUFFER_SIZE, BUFFERS, executor);
+    }
+
+    public static DecompressingSource gzip(Path path) throws IOException {
+        return gzip(path, NEW_THREAD);
+    }
+
+    public static DecompressingSource gzip(Path path, Executor executor) throws IOException {
+        InputStream compressed = Files.newInputStream(path);
+        try {
+            return gzip(compressed, executor);
+        } catch (IOException | RuntimeException e) {
+            compressed.close();
+            throw e;
+        }
+    }
+
+    // runs on the background thread
+    private void decompress() {
+        synchronized (this) {
+            worker = Thread.currentThread();
+        }
+        try (InputStream in = input) {
+            while (!closed) {
+                ByteBuffer buffer = free.take();
+                byte[] array = buffer.array();
+                int length = 0;
+                while (length < array.length && !closed) {
+                    int n = in.read(array, length, array.length - length);
+                    if (n < 0) break;
+                    length += n;
+                }
+                buffer.clear().limit(length);
+                if (length > 0) filled.put(buffer);
+                if (length < array.length) break;
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } catch (IOException e) {
+            if (!closed) failure = e;
+        } catch (RuntimeException e) {
+            if (!closed) failure = new IOException(e);
+        } finally {
+            filled.offer(END);
+            synchronized (this) {
+                worker = null;
+            }
+            done.countDown();
+            // a pooled thread must not keep an interrupt of close
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Wait for the next decompressed buffer.
+     * @return null at the end of input
+     * @throws IOException If decompression failed, e.g. corrupt data.
+     */
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (ended) return null;
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed input");
+        }
+        if (buffer == END) {
+            ended = true;
+            if (failure != null) throw failure;
+            return null;
+        }
+        current = buffer;
+        return buffer;
+    }
+
+    /**
+     * Stop the background thread, it closes the input.
+     * A blocking read, e.g. on a socket, may ignore the interrupt:
+     *      if the thread has not stopped after CLOSE_WAIT_MILLIS, the input is closed from here to end the read.
+     * @throws IOException If closing the input fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        synchronized (this) {
+            // not started yet, it sees closed and only closes the input
+            if (worker == null) return;
+            worker.interrupt();
+        }
+        try {
+            if (done.await(CLOSE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        input.close();
+    }
+}
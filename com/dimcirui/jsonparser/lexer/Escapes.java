@@ -0,0 +1,69 @@
+package com.dimcirui.jsonparser.lexer;
+
+/**
+ * Escape sequences in JSON strings: \" \\ \/ \b \f \n \r \t and \\uXXXX.
+ */
+public final class Escapes {
+    private Escapes() {
+    }
+
+    /**
+     * the char that an escape letter stands for.
+     * 'u' is not handled here, it is followed by four hex digits.
+     * @param ch the char after '\'
+     * @return -1 if ch does not start an escape sequence
+     */
+    public static int unescape(int ch) {
+        switch (ch) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            default: return -1;
+        }
+    }
+
+    /**
+     * @param ch
+     * @return 0~15, -1 if ch is not a hex digit
+     */
+    public static int hexValue(int ch) {
+        if ('0' <= ch && ch <= '9') return ch - '0';
+        if ('a' <= ch && ch <= 'f') return ch - 'a' + 10;
+        if ('A' <= ch && ch <= 'F') return ch - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * decode the escape sequences in text[start, end).
+     * The sequences must have been validated already.
+     * @param text
+     * @param start
+     * @param end
+     * @return
+     */
+    public static String unescape(CharSequence text, int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch != '\\') {
+                sb.append(ch);
+                continue;
+            }
+            ch = text.charAt(++i);
+            if (ch == 'u') {
+                int code = 0;
+                for (int j = 0; j < 4; j++) {
+                    code = (code << 4) | hexValue(text.charAt(++i));
+                }
+                sb.append((char) code);
+            }
+            else sb.append((char) unescape(ch));
+        }
+        return sb.toString();
+    }
+}
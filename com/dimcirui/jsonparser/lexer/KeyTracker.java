@@ -0,0 +1,53 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Follows the tokens of a lexer to tell whether the next string is an object key,
+ *      i.e. it comes right after '{' or after ',' inside an object.
+ */
+class KeyTracker {
+    // open containers, true for an object and false for an array
+    private boolean[] stack = new boolean[16];
+    private int depth = 0;
+    private boolean expectKey = false;
+
+    void reset() {
+        depth = 0;
+        expectKey = false;
+    }
+
+    void onToken(TokenType tokenType) {
+        switch (tokenType) {
+            case BEGIN_OBJECT:
+                push(true);
+                expectKey = true;
+                break;
+            case BEGIN_ARRAY:
+                push(false);
+                expectKey = false;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                if (depth > 0) depth--;
+                expectKey = false;
+                break;
+            case SEP_COMMA:
+                expectKey = depth > 0 && stack[depth - 1];
+                break;
+            default:
+                expectKey = false;
+        }
+    }
+
+    boolean isKey() {
+        return expectKey;
+    }
+
+    private void push(boolean isObject) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = isObject;
+    }
+}
@@ -1,270 +1,432 @@
-package com.dimcirui.jsonparser.lexer;
-
-import java.io.IOException;
-import com.dimcirui.jsonparser.exception.*;
-
-/**
- * Parse characters and generate a TokenList.
- */
-public class Lexer {
-    private CharReader charReader;
-    private TokenList tokenList;
-
-    public TokenList tokenize(CharReader charReader) throws IOException {
-        this.charReader = charReader;
-        tokenList = new TokenList();
-        generateTokens();
-        return tokenList;
-    }
-
-    private void generateTokens() throws IOException {
-        Token token;
-        do {
-            token = nextToken();
-            tokenList.add(token);
-        } while (token.getTokenType() != TokenType.END_DOCUMENT);
-    }
-
-    /**
-     * Read the next token from the input.
-     * @return The next token.
-     * @throws IOException
-     * @throws JsonParseException If an invalid character is encountered.
-     */
-    private Token nextToken() throws IOException {
-        char ch;
-        while (true) {
-            if (!charReader.hasMore()) {
-                return new Token(TokenType.END_DOCUMENT, null);
-            }
-
-            ch = charReader.next();
-            if (!isWhiteSpace(ch)) break;
-        }
-
-        switch (ch) {
-            case '{': return new Token(TokenType.BEGIN_OBJECT, String.valueOf(ch));
-            case '}': return new Token(TokenType.END_OBJECT, String.valueOf(ch));
-            case '[': return new Token(TokenType.BEGIN_ARRAY, String.valueOf(ch));
-            case ']': return new Token(TokenType.END_ARRAY, String.valueOf(ch));
-            case 'n': return new Token(TokenType.NULL, readNull());
-            case '"': return new Token(TokenType.STRING, readString());
-            case 't':
-            case 'f': return new Token(TokenType.BOOLEAN, readBoolean());
-            case ':': return new Token(TokenType.SEP_COLON, String.valueOf(ch));
-            case ',': return new Token(TokenType.SEP_COMMA, String.valueOf(ch));
-        }
-
-        if (ch == '-' || isDigit(ch)) {
-            return new Token(TokenType.NUMBER, readNumber());
-        }
-
-        throw new JsonParseException("Illegal character: " + ch);
-    }
-
-    // A whitespace can be added between any symbols.
-    private boolean isWhiteSpace(char ch) {
-        return (ch == ' ' || ch == '\t' ||
-                ch == '\n' || ch == '\r');
-    }
-
-    private boolean isDigit(char ch) {
-        return ('0' <= ch && ch <= '9');
-    }
-
-    private boolean isExp(char ch) {
-        return ch == 'e' || ch == 'E';
-    }
-
-    private boolean isEscape(char ch) {
-        return (ch == '"' || ch == '\\' ||
-                ch == 'u' || ch == 'b' ||
-                ch == 't' || ch == 'n' ||
-                ch == 'f' || ch == 'r');
-    }
-
-    private boolean isHex(char ch) {
-        return ((isDigit(ch)) || ('a' <= ch && ch <= 'f') || ('A' <= ch && ch <= 'F'));
-    }
-
-    private boolean isReadEnd() throws IOException{
-        return charReader.peek() == (char) -1;
-    }
-
-    private String readNull() throws IOException {
-        if (!matchNextChars("ull")) {
-            throw new JsonParseException("Invalid JSON string for null value");
-        }
-        return "null";
-    }
-
-    private String readNumber() throws IOException {
-        char ch = charReader.peek();
-        StringBuilder sb = new StringBuilder();
-
-        // Negative number, '-xx'
-        if (ch == '-') {
-            sb.append(ch);
-
-            ch = charReader.next();
-            // Negative fraction, '-0.xx'
-            if (ch == '0') {
-                sb.append(ch);
-                sb.append(readFracAndExp());
-            }
-            // Negative Integer, '-xx'
-            else if (isDigit(ch) && ch != '0') {
-                sb.append(readDigits());
-
-                if (!isReadEnd()) {
-                    charReader.back();
-                    sb.append(readFracAndExp());
-                }
-            }
-            else throw new JsonParseException("Invalid negative number");
-        }
-        // Fraction
-        else if (ch == '0') {
-            sb.append(ch);
-            sb.append(readFracAndExp());
-        }
-        // Integer
-        else {
-            sb.append(readDigits());
-
-            if (!isReadEnd()) {
-                charReader.back();
-                sb.append(readFracAndExp());
-            }
-        }
-
-        return sb.toString();
-    }
-
-    /**
-     * read all 0~9 digits, end at the character after the last digit
-     * @return String of digits
-     */
-    private String readDigits() throws IOException {
-        char ch = charReader.peek();
-        StringBuilder sb = new StringBuilder();
-
-        do {
-            sb.append(ch);
-            ch = charReader.next();
-        } while (isDigit(ch));
-
-        return sb.toString();
-    }
-
-    private String readFracAndExp() throws IOException {
-        StringBuilder sb = new StringBuilder();
-        char ch = charReader.next();
-        // Integer -> Fraction
-        if (ch == '.') {
-            sb.append(ch);
-
-            ch = charReader.next();
-            if (!isDigit(ch)) {
-                throw new JsonParseException("Invalid number format: Not a number.");
-            }
-            sb.append(readDigits());
-
-            ch = charReader.peek();
-            // Integer -> Fraction -> Exp
-            if (isExp(ch)) {
-                sb.append(readExp());
-            }
-            else if (!isReadEnd()) {
-                charReader.back();
-            }
-        } 
-        // Integer -> Exp
-        else if (isExp(ch)) {
-            sb.append(readExp());
-        }
-        else charReader.back();
-
-        return sb.toString();
-    }
-
-    // Fraction -> Exp
-    // Integer -> Exp
-    private String readExp() throws IOException {
-        StringBuilder sb = new StringBuilder();
-        char ch = charReader.peek();
-        if (ch == 'e' || ch == 'E') {
-            sb.append(ch);
-
-            ch = charReader.next();
-            if (ch == '+' || ch == '-') {
-                sb.append(ch);
-                ch = charReader.next();
-            }
-    
-            if (!isDigit(ch)) {
-                throw new JsonParseException("Invalid number format: Missing number after e/E.");
-            }
-            sb.append(ch);
-            
-            if (ch == 0 && isDigit(charReader.next())) {
-                throw new JsonParseException("Invalid number format: Leading zero after e/E.");
-            }
-            sb.append(readDigits());
-    
-            if (!isReadEnd()) {
-                charReader.back();
-            }
-        }
-
-        return sb.toString();
-    }
-
-    private String readString() throws IOException {
-        StringBuilder sb = new StringBuilder();
-        while (true) {
-            char ch = charReader.next();
-            if (ch == '"') return sb.toString();
-            if (ch == '\r' || ch == '\n') throw new NumberFormatException("Invalid character");
-
-            if (ch == '\\') {
-                ch = charReader.next();
-                if (!isEscape(ch)) throw new NumberFormatException("Invalid character");
-                sb.append('\\');
-                sb.append(ch);
-                if (ch == 'u') {
-                    for (int i = 0; i < 4; i++) {
-                        ch = charReader.next();
-                        if (!isHex(ch)) throw new NumberFormatException("Invalid character");
-                        sb.append(ch);
-                    }
-                }
-            }
-            else sb.append(ch);
-        }
-    }
-
-    private String readBoolean() throws IOException {
-        if (charReader.peek() == 't') {
-            if (!matchNextChars("rue")) {
-                throw new JsonParseException("Invalid JSON string for true value");
-            }
-            return "true";
-        }
-        else {
-            if (!matchNextChars("alse")) {
-                throw new JsonParseException("Invalid JSON string for false value");
-            }
-            return "false";
-        }
-    }
-
-    private boolean matchNextChars(String expected) throws IOException {
-        for (char exp: expected.toCharArray()) {
-            if (charReader.next() != exp) {
-                return false;
-            }
-        }
-        return true;
-    }
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * Parse characters and generate a TokenList,
+ *      or hand the tokens out one by one through a TokenStream.
+ * tokenize fills the arrays of a TokenList that the lexer reuses, no Token is created per token.
+ */
+public class Lexer {
+    // parts of a number, see readDigits
+    private static final int INTEGER = 0;
+    private static final int FRACTION = 1;
+    private static final int EXPONENT = 2;
+
+    private CharReader charReader;
+    private final TokenList tokenList;
+    private NumberBuilder numberBuilder = new NumberBuilder();
+
+    // object keys are interned, other strings are built from chars
+    private SymbolTable symbolTable;
+    private KeyTracker keyTracker = new KeyTracker();
+    // content of the last STRING, or value of the last BOOLEAN
+    private char[] chars = new char[64];
+    private int length;
+    private boolean booleanValue;
+
+    public Lexer() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable shared with other lexers, so keys are canonical across parses
+     */
+    public Lexer(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+        this.tokenList = new TokenList(symbolTable);
+    }
+
+    /**
+     * Keep every number as written, so its token returns the exact text, see NumberBuilder.keepText.
+     * Off by default, numbers are then only kept as text if they do not fit in a long.
+     * @param keepNumberText
+     */
+    public void keepNumberText(boolean keepNumberText) {
+        numberBuilder.keepText(keepNumberText);
+    }
+
+    /**
+     * Drop the input of the last call and the tokens of the last tokenize,
+     *      so a lexer that is kept for reuse does not keep them alive.
+     */
+    public void reset() {
+        charReader = null;
+        keyTracker.reset();
+        tokenList.clear();
+    }
+
+    /**
+     * Read all tokens of the input.
+     * @param charReader
+     * @return a list owned by this lexer, valid until its next call of tokenize
+     * @throws IOException
+     */
+    public TokenList tokenize(CharReader charReader) throws IOException {
+        this.charReader = charReader;
+        tokenList.clear();
+        generateTokens();
+        return tokenList;
+    }
+
+    /**
+     * Read tokens lazily instead of collecting them into a TokenList.
+     * Only the current and the previous token are kept alive,
+     *      so memory does not grow with the size of the input.
+     * IOExceptions from the reader are rethrown as UncheckedIOException.
+     * @param charReader
+     * @return
+     */
+    public TokenStream stream(CharReader charReader) {
+        this.charReader = charReader;
+        keyTracker.reset();
+        return new LexerTokenStream();
+    }
+
+    // the TokenList tells keys by the colon after them, no KeyTracker is needed
+    private void generateTokens() throws IOException {
+        TokenType tokenType;
+        do {
+            tokenType = readToken();
+            switch (tokenType) {
+                case STRING: tokenList.addString(chars, length); break;
+                case NUMBER:
+                    if (numberBuilder.hasText()) tokenList.addNumber(numberBuilder.text());
+                    else if (numberBuilder.isDouble()) tokenList.addDouble(numberBuilder.doubleValue());
+                    else tokenList.addLong(numberBuilder.longValue());
+                    break;
+                case BOOLEAN: tokenList.addBoolean(booleanValue); break;
+                default: tokenList.add(tokenType);
+            }
+        } while (tokenType != TokenType.END_DOCUMENT);
+    }
+
+    /**
+     * Read the next token from the input.
+     * @return The next token.
+     * @throws IOException
+     * @throws JsonParseException If an invalid character is encountered.
+     */
+    private Token nextToken() throws IOException {
+        TokenType tokenType = readToken();
+        Token token;
+        switch (tokenType) {
+            case STRING:
+                // keys are looked up in the symbol table instead of creating a new String
+                token = new Token(tokenType, keyTracker.isKey() ? symbolTable.intern(chars, 0, length) : new String(chars, 0, length));
+                break;
+            case NUMBER: token = numberBuilder.toToken(); break;
+            case BOOLEAN: token = new Token(tokenType, booleanValue ? "true" : "false"); break;
+            case NULL: token = new Token(tokenType, "null"); break;
+            case BEGIN_OBJECT: token = new Token(tokenType, "{"); break;
+            case END_OBJECT: token = new Token(tokenType, "}"); break;
+            case BEGIN_ARRAY: token = new Token(tokenType, "["); break;
+            case END_ARRAY: token = new Token(tokenType, "]"); break;
+            case SEP_COLON: token = new Token(tokenType, ":"); break;
+            case SEP_COMMA: token = new Token(tokenType, ","); break;
+            default: token = new Token(tokenType, null);
+        }
+        keyTracker.onToken(tokenType);
+        return token;
+    }
+
+    /**
+     * Read the next token, its value is left in chars/length, numberBuilder or booleanValue.
+     * @return
+     * @throws IOException
+     */
+    private TokenType readToken() throws IOException {
+        if (!charReader.skipWhitespace()) {
+            return TokenType.END_DOCUMENT;
+        }
+        char ch = charReader.next();
+
+        switch (ch) {
+            case '{': return TokenType.BEGIN_OBJECT;
+            case '}': return TokenType.END_OBJECT;
+            case '[': return TokenType.BEGIN_ARRAY;
+            case ']': return TokenType.END_ARRAY;
+            case 'n':
+                readNull();
+                return TokenType.NULL;
+            case '"':
+                readString();
+                return TokenType.STRING;
+            case 't':
+            case 'f':
+                booleanValue = readBoolean(ch);
+                return TokenType.BOOLEAN;
+            case ':': return TokenType.SEP_COLON;
+            case ',': return TokenType.SEP_COMMA;
+        }
+
+        if (ch == '-' || isDigit(ch)) {
+            readNumber(ch);
+            return TokenType.NUMBER;
+        }
+
+        throw new JsonParseException("Illegal character: " + ch);
+    }
+
+    private boolean isDigit(int ch) {
+        return ('0' <= ch && ch <= '9');
+    }
+
+    private boolean isExp(int ch) {
+        return ch == 'e' || ch == 'E';
+    }
+
+    private void readNull() throws IOException {
+        if (!matchNextChars("ull")) {
+            throw new JsonParseException("Invalid JSON string for null value");
+        }
+    }
+
+    // read the next char, -1 at the end of input
+    private int nextChar() throws IOException {
+        if (!charReader.hasMore()) return -1;
+        return charReader.next();
+    }
+
+    // give back a char that is not part of the current token
+    private void unread(int ch) {
+        if (ch != -1) charReader.back();
+    }
+
+    /**
+     * -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     * Digits go straight into the NumberBuilder,
+     *      ends at the character after the last digit.
+     * @param first '-' or the first digit, already read
+     */
+    private void readNumber(char first) throws IOException {
+        numberBuilder.reset();
+        int ch = first;
+
+        // Negative number, '-xx'
+        if (ch == '-') {
+            numberBuilder.sign();
+            ch = nextChar();
+        }
+        if (!isDigit(ch)) {
+            throw new JsonParseException("Invalid negative number");
+        }
+
+        // Integer, a leading '0' can only be followed by a fraction or an exponent
+        if (ch == '0') {
+            numberBuilder.digit(ch);
+            ch = nextChar();
+        }
+        else {
+            ch = readDigits(ch, INTEGER);
+        }
+
+        // Integer -> Fraction
+        if (ch == '.') {
+            numberBuilder.point();
+            ch = nextChar();
+            if (!isDigit(ch)) {
+                throw new JsonParseException("Invalid number format: Not a number.");
+            }
+            ch = readDigits(ch, FRACTION);
+        }
+
+        // Integer -> Exp, Fraction -> Exp
+        if (isExp(ch)) {
+            numberBuilder.exponentMark(ch);
+            ch = nextChar();
+            if (ch == '+' || ch == '-') {
+                numberBuilder.exponentSign(ch);
+                ch = nextChar();
+            }
+            if (!isDigit(ch)) {
+                throw new JsonParseException("Invalid number format: Missing number after e/E.");
+            }
+            ch = readDigits(ch, EXPONENT);
+        }
+
+        unread(ch);
+    }
+
+    /**
+     * Feed a digit and the run of digits after it to the NumberBuilder, scanning the buffer of the reader.
+     * @param first the first digit, already read
+     * @param part INTEGER, FRACTION or EXPONENT
+     * @return the char after the digits, -1 at the end of input
+     */
+    private int readDigits(int first, int part) throws IOException {
+        digit(first, part);
+        do {
+            int start = charReader.position();
+            int end = charReader.scanDigits();
+            char[] buffer = charReader.buffer();
+            for (int i = start; i < end; i++) digit(buffer[i], part);
+        } while (charReader.position() == charReader.limit() && charReader.hasMore());
+        return nextChar();
+    }
+
+    private void digit(int ch, int part) {
+        switch (part) {
+            case INTEGER: numberBuilder.digit(ch); break;
+            case FRACTION: numberBuilder.fractionDigit(ch); break;
+            default: numberBuilder.exponentDigit(ch);
+        }
+    }
+
+    /**
+     * read the content of a string into the char buffer, decoding escape sequences.
+     */
+    private void readString() throws IOException {
+        length = 0;
+        while (true) {
+            if (!charReader.hasMore()) throw new JsonParseException("Unterminated string");
+            // plain content is copied as a run, only quotes, escapes and line breaks stop it
+            int start = charReader.position();
+            int end = charReader.scanString();
+            if (end > start) append(charReader.buffer(), start, end - start);
+            if (end == charReader.limit()) continue;
+
+            char ch = charReader.next();
+            if (ch == '"') return;
+            if (ch == '\r' || ch == '\n') throw new NumberFormatException("Invalid character");
+
+            // an escape sequence
+            ch = charReader.next();
+            if (ch == 'u') {
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int hex = Escapes.hexValue(charReader.next());
+                    if (hex < 0) throw new NumberFormatException("Invalid character");
+                    code = (code << 4) | hex;
+                }
+                append((char) code);
+            }
+            else {
+                int unescaped = Escapes.unescape(ch);
+                if (unescaped < 0) throw new NumberFormatException("Invalid character");
+                append((char) unescaped);
+            }
+        }
+    }
+
+    private void append(char[] buffer, int offset, int count) {
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+        }
+        System.arraycopy(buffer, offset, chars, length, count);
+        length += count;
+    }
+
+    private void append(char ch) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = ch;
+    }
+
+    private boolean readBoolean(char first) throws IOException {
+        if (first == 't') {
+            if (!matchNextChars("rue")) {
+                throw new JsonParseException("Invalid JSON string for true value");
+            }
+            return true;
+        }
+        else {
+            if (!matchNextChars("alse")) {
+                throw new JsonParseException("Invalid JSON string for false value");
+            }
+            return false;
+        }
+    }
+
+    private boolean matchNextChars(String expected) throws IOException {
+        for (char exp: expected.toCharArray()) {
+            if (charReader.next() != exp) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Raw skip to the bracket that closes the current container, see TokenStream.skipContainer.
+     * @return END_OBJECT or END_ARRAY
+     * @throws JsonParseException If the input ends first.
+     */
+    private TokenType skipContainer() throws IOException {
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        while (charReader.hasMore()) {
+            char ch = charReader.next();
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (ch == '\\') escaped = true;
+                else if (ch == '"') inString = false;
+                continue;
+            }
+            switch (ch) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        TokenType tokenType = ch == '}' ? TokenType.END_OBJECT : TokenType.END_ARRAY;
+                        keyTracker.onToken(tokenType);
+                        return tokenType;
+                    }
+                    break;
+            }
+        }
+        throw new JsonParseException("Unterminated container");
+    }
+
+    private class LexerTokenStream implements TokenStream {
+        private Token previous;
+        private Token current;
+        private boolean ended = false;
+
+        @Override
+        public Token next() {
+            previous = current;
+            try {
+                current = nextToken();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (current.getTokenType() == TokenType.END_DOCUMENT) ended = true;
+            return current;
+        }
+
+        @Override
+        public boolean hasMore() {
+            return !ended;
+        }
+
+        @Override
+        public Token peekPrevious() {
+            return previous;
+        }
+
+        @Override
+        public Token skipContainer() {
+            TokenType tokenType;
+            try {
+                tokenType = Lexer.this.skipContainer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            previous = current;
+            current = new Token(tokenType, tokenType == TokenType.END_OBJECT ? "}" : "]");
+            return current;
+        }
+    }
 }
\ No newline at end of file
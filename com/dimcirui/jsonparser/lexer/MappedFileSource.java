@@ -0,0 +1,51 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps a file into memory window by window, so files larger than 2 GB
+ *      (the limit of a single MappedByteBuffer) can be read without copying.
+ */
+public class MappedFileSource implements ByteSource, Closeable {
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private FileChannel channel;
+    private long position = 0;
+    private long size;
+    private long windowSize;
+
+    public MappedFileSource(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    public MappedFileSource(Path path, long windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (position >= size) {
+            close();
+            return null;
+        }
+        long length = Math.min(windowSize, size - position);
+        ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+        return window;
+    }
+
+    /**
+     * Mapped windows stay valid after the channel is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
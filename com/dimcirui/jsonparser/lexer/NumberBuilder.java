@@ -0,0 +1,282 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.math.BigInteger;
+
+import com.dimcirui.jsonparser.exception.JsonParseException;
+
+/**
+ * Accumulates a number while the lexer reads it, char by char,
+ *      and converts it to a long or a double without building a String.
+ * Reused for every number of a document.
+ *
+ * Doubles take the exact fast path (Clinger) when the significant digits
+ *      fit in 53 bits and the decimal exponent is within 10^22.
+ * Everything else falls back to Double.parseDouble on digits + "E" + exponent, built from the state.
+ * The digits are only recorded as chars once there are more than a long holds, which is rare.
+ *
+ * An integer beyond the range of a long becomes a text token, see Token.getNumber.
+ * With keepText(true) every number is recorded as written and becomes a text token,
+ *      for callers that need the exact text, e.g. to bind a BigDecimal.
+ */
+public class NumberBuilder {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // a long holds any 19 digits when read as unsigned
+    private static final int MAX_DIGITS = 19;
+    // far beyond any scale, so a larger exponent gives the same infinity or zero
+    private static final long MAX_EXPONENT = 1L << 40;
+
+    // all significant digits, only recorded once they overflow the mantissa; created on first use
+    private StringBuilder text;
+    // the number as written, only recorded if keepText is set
+    private StringBuilder lexeme;
+    private boolean keepText;
+
+    private boolean negative;
+    // significant digits, as an unsigned long
+    private long mantissa;
+    private int digits;
+    // digits after the point
+    private int scale;
+    private long exponent;
+    private boolean negativeExponent;
+    private boolean isDouble;
+    private boolean overflow;
+
+    /**
+     * Record the chars of every number, so the token carries the number as written.
+     * Off by default, the primitive value is enough for most callers and creates no String.
+     * @param keepText
+     */
+    public void keepText(boolean keepText) {
+        this.keepText = keepText;
+        if (keepText && lexeme == null) lexeme = new StringBuilder();
+    }
+
+    public void reset() {
+        if (text != null) text.setLength(0);
+        if (lexeme != null) lexeme.setLength(0);
+        negative = false;
+        mantissa = 0;
+        digits = 0;
+        scale = 0;
+        exponent = 0;
+        negativeExponent = false;
+        isDouble = false;
+        overflow = false;
+    }
+
+    /**
+     * Read the number that starts at start, for a caller that has the whole input, e.g. the tape.
+     * -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     * The builder is reset first and holds the number afterwards.
+     * @param source
+     * @param start index of '-' or of the first digit
+     * @return index after the last char of the number
+     * @throws JsonParseException If the number is malformed.
+     */
+    public int parse(CharSequence source, int start) {
+        reset();
+        int i = start;
+        if (charAt(source, i) == '-') {
+            sign();
+            i++;
+        }
+        int ch = charAt(source, i);
+        if (!isDigit(ch)) throw new JsonParseException("Invalid negative number");
+        digit(ch);
+        i++;
+        // a leading '0' can only be followed by a fraction or an exponent
+        if (ch != '0') {
+            while (isDigit(ch = charAt(source, i))) {
+                digit(ch);
+                i++;
+            }
+        }
+        if (charAt(source, i) == '.') {
+            point();
+            i++;
+            if (!isDigit(charAt(source, i))) throw new JsonParseException("Invalid number format: Not a number.");
+            while (isDigit(ch = charAt(source, i))) {
+                fractionDigit(ch);
+                i++;
+            }
+        }
+        ch = charAt(source, i);
+        if (ch == 'e' || ch == 'E') {
+            exponentMark(ch);
+            ch = charAt(source, ++i);
+            if (ch == '+' || ch == '-') {
+                exponentSign(ch);
+                ch = charAt(source, ++i);
+            }
+            if (!isDigit(ch)) throw new JsonParseException("Invalid number format: Missing number after e/E.");
+            while (isDigit(ch = charAt(source, i))) {
+                exponentDigit(ch);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    // -1 past the end
+    private static int charAt(CharSequence source, int index) {
+        return index < source.length() ? source.charAt(index) : -1;
+    }
+
+    private static boolean isDigit(int ch) {
+        return '0' <= ch && ch <= '9';
+    }
+
+    // '-'
+    public void sign() {
+        if (keepText) lexeme.append('-');
+        negative = true;
+    }
+
+    // '0'~'9' before the point
+    public void digit(int ch) {
+        if (keepText) lexeme.append((char) ch);
+        addDigit(ch);
+    }
+
+    // '.'
+    public void point() {
+        if (keepText) lexeme.append('.');
+        isDouble = true;
+    }
+
+    // '0'~'9' after the point
+    public void fractionDigit(int ch) {
+        if (keepText) lexeme.append((char) ch);
+        addDigit(ch);
+        scale++;
+    }
+
+    // 'e' or 'E'
+    public void exponentMark(int ch) {
+        if (keepText) lexeme.append((char) ch);
+        isDouble = true;
+    }
+
+    // '+' or '-' after e/E
+    public void exponentSign(int ch) {
+        if (keepText) lexeme.append((char) ch);
+        negativeExponent = (ch == '-');
+    }
+
+    // '0'~'9' after e/E
+    public void exponentDigit(int ch) {
+        if (keepText) lexeme.append((char) ch);
+        if (exponent < MAX_EXPONENT) {
+            exponent = exponent * 10 + (ch - '0');
+        }
+    }
+
+    private void addDigit(int ch) {
+        if (overflow) {
+            text.append((char) ch);
+            return;
+        }
+        // leading zeros are not significant
+        if (mantissa == 0 && ch == '0') return;
+        if (digits == MAX_DIGITS) {
+            // from here on the digits are kept as chars
+            overflow = true;
+            if (text == null) text = new StringBuilder();
+            text.append(Long.toUnsignedString(mantissa)).append((char) ch);
+            return;
+        }
+        mantissa = mantissa * 10 + (ch - '0');
+        digits++;
+    }
+
+    /**
+     * A number is a double if it has a fraction or an exponent.
+     * @return
+     */
+    public boolean isDouble() {
+        return isDouble;
+    }
+
+    /**
+     * check if an integer number fits in a long.
+     * @return
+     */
+    public boolean fitsLong() {
+        if (overflow) return false;
+        return negative ? Long.compareUnsigned(mantissa, Long.MIN_VALUE) <= 0 : mantissa >= 0;
+    }
+
+    /**
+     * check if the number must be kept as text: it was asked for with keepText,
+     *      or the number is an integer beyond the range of a long.
+     * @return
+     */
+    public boolean hasText() {
+        return keepText || (!isDouble && !fitsLong());
+    }
+
+    /**
+     * the number as written if keepText is set, otherwise the digits of an integer with its sign.
+     * @return
+     */
+    public String text() {
+        if (keepText) return lexeme.toString();
+        return (negative ? "-" : "") + digitString();
+    }
+
+    /**
+     * value of an integer number.
+     * @return
+     * @throws NumberFormatException If the number does not fit in a long, see fitsLong.
+     */
+    public long longValue() {
+        if (fitsLong()) return negative ? -mantissa : mantissa;
+        throw new NumberFormatException("Number out of the range of a long: " + (negative ? "-" : "") + digitString());
+    }
+
+    public double doubleValue() {
+        long exp10 = (negativeExponent ? -exponent : exponent) - scale;
+        if (!overflow && Long.compareUnsigned(mantissa, MAX_EXACT_MANTISSA) <= 0 &&
+                -POWERS_OF_TEN.length < exp10 && exp10 < POWERS_OF_TEN.length) {
+            double value = (double) mantissa;
+            value = exp10 >= 0 ? value * POWERS_OF_TEN[(int) exp10] : value / POWERS_OF_TEN[(int) -exp10];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble((negative ? "-" : "") + digitString() + 'E' + exp10);
+    }
+
+    // the significant digits, as an integer
+    private String digitString() {
+        return overflow ? text.toString() : Long.toUnsignedString(mantissa);
+    }
+
+    /**
+     * the number boxed like Token.getNumber: Double for a double,
+     *      Integer if the integer fits in an int, Long if it fits in a long, otherwise BigInteger.
+     * @return
+     */
+    public Number numberValue() {
+        if (isDouble) return doubleValue();
+        if (!fitsLong()) return new BigInteger((negative ? "-" : "") + digitString());
+        long num = longValue();
+        if ((int) num == num) return (int) num;
+        return num;
+    }
+
+    /**
+     * the number as a token, Double if it is a double, otherwise Long,
+     *      or its text if hasText.
+     * @return
+     */
+    public Token toToken() {
+        if (hasText()) return new Token(TokenType.NUMBER, text());
+        if (isDouble) return new Token(doubleValue());
+        return new Token(longValue());
+    }
+}
@@ -0,0 +1,161 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * Token stream over UTF-8 input that is pushed in chunks, e.g. from a non-blocking channel.
+ * feed() copies the chunk after the unread bytes and endOfInput() marks the end,
+ *      neither of them blocks.
+ * next() returns null while the next token is not complete yet.
+ *
+ * Only the bytes from the start of the unfinished token on are kept,
+ *      so memory use depends on the longest token, not on the document size.
+ * A complete token is read by ByteLexer, so the tokens are the same as ByteLexer's.
+ */
+public class PushLexer implements TokenStream {
+    private final ByteLexer byteLexer;
+    private final ByteScanner scanner = ByteScanner.get();
+
+    private byte[] data = new byte[4096];
+    private ByteBuffer buffer = ByteBuffer.wrap(data);
+    // start of the unread bytes and end of the fed bytes
+    private int pos = 0;
+    private int size = 0;
+    // bytes of the unfinished token already checked, relative to pos
+    private int scanned = 0;
+    private boolean endOfInput = false;
+
+    private Token previous;
+    private Token current;
+    private boolean ended = false;
+
+    public PushLexer() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable shared with other lexers, so keys are canonical across parses
+     */
+    public PushLexer(SymbolTable symbolTable) {
+        this.byteLexer = new ByteLexer(symbolTable);
+    }
+
+    /**
+     * Append the bytes between position and limit of the chunk, the chunk is consumed.
+     * It is copied, so the caller may reuse it afterwards.
+     * @param chunk
+     * @throws IllegalStateException After endOfInput().
+     */
+    public void feed(ByteBuffer chunk) {
+        if (endOfInput) throw new IllegalStateException("Input has ended");
+        int count = chunk.remaining();
+        if (size + count > data.length) {
+            // drop the bytes that are read already
+            System.arraycopy(data, pos, data, 0, size - pos);
+            size -= pos;
+            pos = 0;
+            if (size + count > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + count, data.length * 2));
+                buffer = ByteBuffer.wrap(data);
+            }
+        }
+        chunk.get(data, size, count);
+        size += count;
+    }
+
+    /**
+     * No more chunks will follow: a number at the end is complete,
+     *      and an unfinished token is an error.
+     */
+    public void endOfInput() {
+        endOfInput = true;
+    }
+
+    /**
+     * read the next token if all of its bytes are there.
+     * @return the token, or null if more input is needed
+     * @throws JsonParseException If the input is not valid JSON.
+     */
+    @Override
+    public Token next() {
+        if (ended) return current;
+        pos = scanner.skipWhiteSpace(buffer, pos, size);
+        int end = tokenEnd();
+        if (end < 0) {
+            if (!endOfInput) return null;
+            // let ByteLexer report what is wrong with the rest
+            end = size;
+        }
+        Token token = byteLexer.nextToken(buffer, pos, end);
+        pos = byteLexer.position();
+        scanned = 0;
+        if (token.getTokenType() == TokenType.END_DOCUMENT) ended = true;
+        previous = current;
+        current = token;
+        return token;
+    }
+
+    /**
+     * Find where the token at pos ends, without reading it.
+     * @return absolute index after the token, or -1 if it goes on past the fed bytes
+     */
+    private int tokenEnd() {
+        if (pos >= size) return endOfInput ? size : -1;
+        int i = pos + scanned;
+        switch (data[pos]) {
+            case '"':
+                if (i == pos) i++;
+                // most strings are short, a plain loop beats the ByteScanner here
+                while (i < size) {
+                    byte b = data[i];
+                    if (b == '"') return i + 1;
+                    if (b == '\\') {
+                        // the escaped byte is not there yet, check the backslash again next time
+                        if (i + 1 >= size) break;
+                        i += 2;
+                    }
+                    else i++;
+                }
+                scanned = i - pos;
+                return -1;
+            case 't':
+            case 'n':
+                return pos + 4 <= size ? pos + 4 : -1;
+            case 'f':
+                return pos + 5 <= size ? pos + 5 : -1;
+        }
+        if (data[pos] == '-' || isDigit(data[pos])) {
+            for (; i < size; i++) {
+                if (!isNumberByte(data[i])) return i;
+            }
+            scanned = i - pos;
+            return endOfInput ? size : -1;
+        }
+        // punctuation, or an illegal character ByteLexer complains about
+        return pos + 1;
+    }
+
+    private boolean isDigit(int b) {
+        return ('0' <= b && b <= '9');
+    }
+
+    private boolean isNumberByte(int b) {
+        return isDigit(b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+
+    /**
+     * @return false once END_DOCUMENT has been returned
+     */
+    @Override
+    public boolean hasMore() {
+        return !ended;
+    }
+
+    @Override
+    public Token peekPrevious() {
+        return previous;
+    }
+}
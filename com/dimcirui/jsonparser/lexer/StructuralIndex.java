@@ -0,0 +1,79 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bitmap over UTF-8 input with one bit per byte,
+ *      set for the quotes that open and close strings
+ *      and for { } [ ] , : outside of strings.
+ * Bit i of the document is bit (i & 63) of bits[i >> 6], relative to the start offset.
+ *
+ * Built in one pass of ByteScanner without tokenizing, so it is much cheaper than lexing,
+ *      and lets callers jump between structural characters without reading the bytes in between.
+ */
+public class StructuralIndex {
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int end;
+    private final long[] bits;
+    // false if the input ends inside a string
+    private final boolean closed;
+
+    private StructuralIndex(ByteBuffer buffer, int start, int end, long[] bits, boolean closed) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.bits = bits;
+        this.closed = closed;
+    }
+
+    /**
+     * Index the bytes between position and limit of the buffer.
+     * The position of the buffer is not changed.
+     * @param buffer
+     * @return
+     */
+    public static StructuralIndex build(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        long[] bits = new long[((end - start) + 63) >>> 6];
+        boolean closed = ByteScanner.get().index(buffer, start, end, bits);
+        return new StructuralIndex(buffer, start, end, bits, closed);
+    }
+
+    /**
+     * absolute index of the first structural byte at or after from.
+     * @param from absolute index into the buffer
+     * @return absolute index, or -1 if there is none
+     */
+    public int next(int from) {
+        int offset = from - start;
+        if (offset >= end - start) return -1;
+        int word = offset >>> 6;
+        long current = bits[word] & (-1L << offset);
+        while (current == 0) {
+            if (++word == bits.length) return -1;
+            current = bits[word];
+        }
+        return start + (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    /**
+     * @return false if the input ends inside a string
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dimcirui.jsonparser.lexer;
+
+/**
+ * A bounded cache of canonical key strings.
+ * The lexers look keys up by a char range of their read buffer,
+ *      so a key that was seen before costs no allocation.
+ *
+ * Each hash selects a pair of slots; on a miss a new String replaces
+ *      one of them, so memory stays bounded however many keys pass by.
+ * Safe to share between threads: entries are immutable Strings,
+ *      a lost update only costs a cache miss.
+ */
+public class SymbolTable {
+    private static final int DEFAULT_CAPACITY = 4096;
+    // longer strings are unlikely to repeat, they are not cached
+    private static final int MAX_LENGTH = 64;
+
+    private final String[] symbols;
+    private final int mask;
+
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public SymbolTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.symbols = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * the canonical String for chars[start, start + length).
+     * @param chars
+     * @param start
+     * @param length
+     * @return
+     */
+    public String intern(char[] chars, int start, int length) {
+        if (length > MAX_LENGTH) return new String(chars, start, length);
+
+        int hash = hash(chars, start, length);
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String symbol = symbols[index];
+        if (matches(symbol, hash, chars, start, length)) return symbol;
+
+        int other = index ^ 1;
+        String otherSymbol = symbols[other];
+        if (matches(otherSymbol, hash, chars, start, length)) return otherSymbol;
+
+        String newSymbol = new String(chars, start, length);
+        if (symbol != null && otherSymbol == null) index = other;
+        symbols[index] = newSymbol;
+        return newSymbol;
+    }
+
+    // same as String.hashCode, computed on the char range
+    private static int hash(char[] chars, int start, int length) {
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    private static boolean matches(String symbol, int hash, char[] chars, int start, int length) {
+        if (symbol == null || symbol.length() != length || symbol.hashCode() != hash) return false;
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[start + i]) return false;
+        }
+        return true;
+    }
+}
@@ -1,39 +1,138 @@
-package com.dimcirui.jsonparser.lexer;
-
-/**
- * Basic elements of json. (TokenType, Value)
- */
-public class Token {
-    private TokenType tokenType;
-    private String value;
-
-    public Token(TokenType tokenType, String value) {
-        this.tokenType = tokenType;
-        this.value = value;
-    }
-
-    public void setTokenType(TokenType tokenType) {
-        this.tokenType = tokenType;
-    }
-
-    public void setValue(String value) {
-        this.value = value;
-    }
-
-    public TokenType getTokenType() {
-        return tokenType;
-    }
-
-    public String getValue() {
-        return value;
-    }
-
-
-    @Override
-    public String toString() {
-        return "Token{" +
-                "tokenType=" + tokenType +
-                ", value='" + value + '\'' +
-                '}';
-    }
+package com.dimcirui.jsonparser.lexer;
+
+import java.math.BigInteger;
+
+/**
+ * Basic elements of json. (TokenType, Value)
+ * Numbers read by the lexers keep their value as a primitive,
+ *      the String value is only created when asked for.
+ * A number token created from text keeps the text, and its value is parsed from it,
+ *      e.g. an integer beyond the range of a long or any number of a lexer that keeps number text.
+ */
+public class Token {
+    private TokenType tokenType;
+    private String value;
+
+    private boolean isDouble;
+    private long longValue;
+    private double doubleValue;
+
+    public Token(TokenType tokenType, String value) {
+        this.tokenType = tokenType;
+        this.value = value;
+    }
+
+    public Token(long longValue) {
+        this.tokenType = TokenType.NUMBER;
+        this.longValue = longValue;
+    }
+
+    public Token(double doubleValue) {
+        this.tokenType = TokenType.NUMBER;
+        this.isDouble = true;
+        this.doubleValue = doubleValue;
+    }
+
+    // reuse this token for another one, see TokenList.next
+    void set(TokenType tokenType, String value, boolean isDouble, long longValue, double doubleValue) {
+        this.tokenType = tokenType;
+        this.value = value;
+        this.isDouble = isDouble;
+        this.longValue = longValue;
+        this.doubleValue = doubleValue;
+    }
+
+    public void setTokenType(TokenType tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    // a NUMBER token that keeps its text
+    boolean hasText() {
+        return value != null;
+    }
+
+    public TokenType getTokenType() {
+        return tokenType;
+    }
+
+    public String getValue() {
+        if (value == null && tokenType == TokenType.NUMBER) {
+            return isDouble ? Double.toString(doubleValue) : Long.toString(longValue);
+        }
+        return value;
+    }
+
+    /**
+     * check if a NUMBER token has a fraction or an exponent.
+     * @return
+     */
+    public boolean isDouble() {
+        if (value != null) return isDoubleText(value);
+        return isDouble;
+    }
+
+    /**
+     * check if a NUMBER token is an integer beyond the range of a long, which is only kept as text.
+     * @return
+     */
+    public boolean isBigInteger() {
+        return value != null && !isDoubleText(value) && !fitsLong(value);
+    }
+
+    /**
+     * @return
+     * @throws NumberFormatException If an integer does not fit in a long, see isBigInteger.
+     */
+    public long getLongValue() {
+        if (value != null) return isDoubleText(value) ? (long) Double.parseDouble(value) : Long.parseLong(value);
+        return isDouble ? (long) doubleValue : longValue;
+    }
+
+    public double getDoubleValue() {
+        if (value != null) return Double.parseDouble(value);
+        return isDouble ? doubleValue : longValue;
+    }
+
+    /**
+     * value of a NUMBER token: Double for a double,
+     *      Integer if the integer fits in an int, Long if it fits in a long, otherwise BigInteger.
+     * @return
+     */
+    public Number getNumber() {
+        if (isDouble()) return getDoubleValue();
+        if (isBigInteger()) return new BigInteger(value);
+
+        long num = getLongValue();
+        if (num > Integer.MAX_VALUE || num < Integer.MIN_VALUE) {
+            return num;
+        }
+        return (int) num;
+    }
+
+    private static boolean isDoubleText(String number) {
+        return number.contains(".") || number.contains("e") || number.contains("E");
+    }
+
+    private static boolean fitsLong(String number) {
+        // up to 18 digits always fit
+        if (number.length() < 19) return true;
+        try {
+            Long.parseLong(number);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Token{" +
+                "tokenType=" + tokenType +
+                ", value='" + getValue() + '\'' +
+                '}';
+    }
 }
\ No newline at end of file
@@ -1,42 +1,241 @@
-
-package com.dimcirui.jsonparser.lexer;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * A list of tokens.
- */
-public class TokenList {
-    private List<Token> tokenList = new ArrayList<>();
-    private int pos = 0;
-
-    public void add(Token token) {
-        tokenList.add(token);
-    }
-
-    public Token peek() {
-        if (!hasMore()) return null;
-        return tokenList.get(pos);
-    }
-
-    public Token peekPrevious() {
-        if (pos - 1  < 0) return null;
-        return tokenList.get(pos - 2);
-    }
-
-    public Token next() {
-        return tokenList.get(pos++);
-    }
-
-    public boolean hasMore() {
-        return pos < tokenList.size();
-    }
-
-    @Override
-    public String toString() {
-        return "TokenList{" +
-                "tokenList=" + tokenList +
-                '}';
-    }
-}
+package com.dimcirui.jsonparser.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of tokens, kept as arrays instead of one Token object per token.
+ * types holds the code of each token (see TokenType), values its number,
+ *      or for a string its offset and length in the decoded text of all strings.
+ * A number that is kept as text (see NumberBuilder.hasText) is stored in the text like a string.
+ * A string followed by ':' is a key and is interned when it is read back, if the list has a SymbolTable.
+ *
+ * Strings and numbers are not kept as offsets into the input.
+ *      The lexers read through a CharReader or a ByteSource, whose buffer is refilled as they go,
+ *      so an offset would not point at the chars any more; escape sequences are decoded into the text instead.
+ *      A number is converted while it is read, it fits in the same long an offset would take.
+ *      Only the String of a string token is deferred to next().
+ *
+ * next() hands out two Token objects in turn, so the token it returned and the one before it
+ *      (see peekPrevious) stay valid until the next call; copy anything needed for longer.
+ * A Lexer reuses its TokenList, clear() keeps the arrays unless they grew beyond a few thousand tokens.
+ */
+public class TokenList implements TokenStream {
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+    // arrays larger than this are dropped on clear, so an idle pooled lexer keeps at most ~80KB
+    private static final int MAX_RETAINED = 1 << 12;
+    private static final int KEY = 1 << 16;
+    private static final int DOUBLE = 1 << 17;
+    private static final int NUMBER_TEXT = 1 << 18;
+    private static final int CODE_MASK = KEY - 1;
+    // the text of the punctuation tokens, by ordinal
+    private static final String[] PUNCTUATION = { "{", "}", "[", "]", null, null, null, null, ":", "," };
+
+    private final SymbolTable symbolTable;
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    // NUMBER: the long, or the bits of the double, or offset << 32 | length in text;
+    // STRING: offset << 32 | length in text; BOOLEAN: 1 for true
+    private long[] values = new long[INITIAL_CAPACITY];
+    private char[] text = new char[INITIAL_CAPACITY * 4];
+    private int size = 0;
+    private int textLength = 0;
+    private int pos = 0;
+
+    private final Token[] cursors = { new Token(null, null), new Token(null, null) };
+
+    public TokenList() {
+        this(null);
+    }
+
+    /**
+     * @param symbolTable interns the keys, null to create a new String for each
+     */
+    public TokenList(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    public void add(Token token) {
+        TokenType tokenType = token.getTokenType();
+        switch (tokenType) {
+            case STRING:
+                String value = token.getValue();
+                ensureText(value.length());
+                value.getChars(0, value.length(), text, textLength);
+                addText(value.length());
+                break;
+            case NUMBER:
+                if (token.hasText()) addNumber(token.getValue());
+                else if (token.isDouble()) addDouble(token.getDoubleValue());
+                else addLong(token.getLongValue());
+                break;
+            case BOOLEAN:
+                addBoolean("true".equals(token.getValue()));
+                break;
+            default:
+                add(tokenType);
+        }
+    }
+
+    /**
+     * add a token without a value, e.g. punctuation, null or END_DOCUMENT.
+     * @param tokenType
+     */
+    void add(TokenType tokenType) {
+        // the string before a colon is a key
+        if (tokenType == TokenType.SEP_COLON && size > 0 && types[size - 1] == TokenType.STRING.getTokenCode()) {
+            types[size - 1] |= KEY;
+        }
+        append(tokenType.getTokenCode(), 0);
+    }
+
+    void addLong(long value) {
+        append(TokenType.NUMBER.getTokenCode(), value);
+    }
+
+    void addDouble(double value) {
+        append(TokenType.NUMBER.getTokenCode() | DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * add a number that is kept as text.
+     * @param number
+     */
+    void addNumber(String number) {
+        ensureText(number.length());
+        number.getChars(0, number.length(), text, textLength);
+        append(TokenType.NUMBER.getTokenCode() | NUMBER_TEXT, (long) textLength << 32 | number.length());
+        textLength += number.length();
+    }
+
+    void addBoolean(boolean value) {
+        append(TokenType.BOOLEAN.getTokenCode(), value ? 1 : 0);
+    }
+
+    /**
+     * add a string token, the chars are copied.
+     * @param chars decoded content, without quotes
+     * @param length
+     */
+    void addString(char[] chars, int length) {
+        ensureText(length);
+        System.arraycopy(chars, 0, text, textLength, length);
+        addText(length);
+    }
+
+    private void ensureText(int length) {
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        }
+    }
+
+    private void addText(int length) {
+        append(TokenType.STRING.getTokenCode(), (long) textLength << 32 | length);
+        textLength += length;
+    }
+
+    private void append(int type, long value) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        types[size] = type;
+        values[size] = value;
+        size++;
+    }
+
+    public Token peek() {
+        if (!hasMore()) return null;
+        return decode(pos, new Token(null, null));
+    }
+
+    @Override
+    public Token peekPrevious() {
+        if (pos < 2) return null;
+        return cursors[(pos - 2) & 1];
+    }
+
+    @Override
+    public Token next() {
+        if (pos >= size) throw new IndexOutOfBoundsException("Index: " + pos + ", Size: " + size);
+        int index = pos++;
+        return decode(index, cursors[index & 1]);
+    }
+
+    // the values are created here, when the parser reads the token
+    private Token decode(int index, Token token) {
+        int type = types[index];
+        TokenType tokenType = TYPES[Integer.numberOfTrailingZeros(type & CODE_MASK)];
+        long value = values[index];
+        switch (tokenType) {
+            case STRING:
+                int offset = (int) (value >>> 32);
+                int length = (int) value;
+                String string = (type & KEY) != 0 && symbolTable != null
+                        ? symbolTable.intern(text, offset, length)
+                        : new String(text, offset, length);
+                token.set(tokenType, string, false, 0, 0);
+                break;
+            case NUMBER:
+                if ((type & NUMBER_TEXT) != 0) token.set(tokenType, new String(text, (int) (value >>> 32), (int) value), false, 0, 0);
+                else if ((type & DOUBLE) != 0) token.set(tokenType, null, true, 0, Double.longBitsToDouble(value));
+                else token.set(tokenType, null, false, value, 0);
+                break;
+            case BOOLEAN:
+                token.set(tokenType, value != 0 ? "true" : "false", false, 0, 0);
+                break;
+            case NULL:
+                token.set(tokenType, "null", false, 0, 0);
+                break;
+            case END_DOCUMENT:
+                token.set(tokenType, null, false, 0, 0);
+                break;
+            default:
+                token.set(tokenType, PUNCTUATION[Integer.numberOfTrailingZeros(type & CODE_MASK)], false, 0, 0);
+        }
+        return token;
+    }
+
+    @Override
+    public boolean hasMore() {
+        return pos < size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * move back to the first token, so the list can be parsed again.
+     */
+    public void reset() {
+        pos = 0;
+    }
+
+    /**
+     * remove all tokens, to fill the list again.
+     */
+    public void clear() {
+        if (types.length > MAX_RETAINED) {
+            types = new int[INITIAL_CAPACITY];
+            values = new long[INITIAL_CAPACITY];
+        }
+        if (text.length > MAX_RETAINED * 4) {
+            text = new char[INITIAL_CAPACITY * 4];
+        }
+        size = 0;
+        textLength = 0;
+        pos = 0;
+    }
+
+    @Override
+    public String toString() {
+        List<Token> tokenList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) tokenList.add(decode(i, new Token(null, null)));
+        return "TokenList{" +
+                "tokenList=" + tokenList +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+package com.dimcirui.jsonparser.lexer;
+
+/**
+ * A sequence of tokens consumed by the Parser one at a time.
+ * Implemented by TokenList (fully tokenized input)
+ *      and by Lexer.stream (tokens read on demand).
+ */
+public interface TokenStream {
+    /**
+     * read the next token and move to it.
+     * @return the token, or null if a PushLexer needs more input first
+     */
+    Token next();
+
+    /**
+     * check if there're any unread tokens.
+     * @return
+     */
+    boolean hasMore();
+
+    /**
+     * the token before the one last returned by next().
+     * @return
+     */
+    Token peekPrevious();
+
+    /**
+     * Skip the rest of the object or array whose BEGIN token was returned last.
+     * Only brackets and string boundaries are tracked:
+     *      no tokens, strings or numbers are created and the skipped content is not validated.
+     * @return the END_OBJECT or END_ARRAY token that closes it,
+     *      or null if this stream can not skip raw input and must be read token by token
+     */
+    default Token skipContainer() {
+        return null;
+    }
+}
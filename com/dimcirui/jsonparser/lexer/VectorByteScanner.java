@@ -0,0 +1,214 @@
+package com.dimcirui.jsonparser.lexer;
+
+import java.nio.ByteBuffer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * ByteScanner on jdk.incubator.vector, in the style of simdjson:
+ *      each step compares a vector of 16~64 bytes at once and turns the result into a bitmask.
+ * Only loaded through ByteScanner.get(), so the library works without the incubator module.
+ * Buffers without a backing array (direct or mapped) use the scalar path.
+ */
+class VectorByteScanner extends ByteScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final VectorSpecies<Long> LONG_SPECIES = VectorSpecies.of(long.class, SPECIES.vectorShape());
+    private static final ByteVector ZERO = ByteVector.zero(SPECIES);
+    // bit 56 + i of (x * MOVE_MASK) is the lowest bit of byte i of x
+    private static final long MOVE_MASK = 0x0102040810204080L;
+    private static final LongVector BYTE_SHIFTS = byteShifts();
+
+    VectorByteScanner() {
+        if (LANES < 16 || LANES > 64) {
+            throw new UnsupportedOperationException("Unsupported vector length: " + LANES);
+        }
+    }
+
+    @Override
+    public int skipPlain(ByteBuffer buffer, int from, int to) {
+        if (!buffer.hasArray()) return super.skipPlain(buffer, from, to);
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset();
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, array, base + i);
+            // control chars and non-ASCII bytes (negative) are all below 0x20
+            VectorMask<Byte> special = v.compare(VectorOperators.LT, (byte) 0x20)
+                    .or(v.eq((byte) '"'))
+                    .or(v.eq((byte) '\\'));
+            if (special.anyTrue()) return i + special.firstTrue();
+        }
+        return super.skipPlain(buffer, i, to);
+    }
+
+    /**
+     * 64 bytes per block, like index(): brackets outside of strings as two bitmasks.
+     * A block that can not close the container only adds its bracket counts to the depth.
+     */
+    @Override
+    public int skipContainer(ByteBuffer buffer, int from, int to, SkipState state) {
+        if (!buffer.hasArray()) return super.skipContainer(buffer, from, to, state);
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset();
+
+        int depth = state.depth;
+        long inString = state.inString ? -1L : 0;
+        long escapedCarry = state.escaped ? 1 : 0;
+        int i = from;
+        for (; i + 64 <= to; i += 64) {
+            long quote = 0;
+            long backslash = 0;
+            long open = 0;
+            long close = 0;
+            for (int k = 0; k < 64; k += LANES) {
+                ByteVector v = ByteVector.fromArray(SPECIES, array, base + i + k);
+                // '[' | 0x20 == '{' and ']' | 0x20 == '}'
+                ByteVector folded = v.or((byte) 0x20);
+                quote |= toLong(v.eq((byte) '"')) << k;
+                backslash |= toLong(v.eq((byte) '\\')) << k;
+                open |= toLong(folded.eq((byte) '{')) << k;
+                close |= toLong(folded.eq((byte) '}')) << k;
+            }
+
+            long escaped = escapedCarry;
+            escapedCarry = 0;
+            for (long rest = backslash & ~escaped; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                if ((escaped & bit) != 0) continue;
+                if (bit == Long.MIN_VALUE) escapedCarry = 1;
+                else escaped |= bit << 1;
+            }
+
+            quote &= ~escaped;
+            long inside = prefixXor(quote) ^ inString;
+            open &= ~inside & ~escaped;
+            close &= ~inside & ~escaped;
+            inString = inside >> 63;
+
+            int closes = Long.bitCount(close);
+            if (closes < depth) {
+                depth += Long.bitCount(open) - closes;
+                continue;
+            }
+            // walk the brackets of this block in order
+            for (long rest = open | close; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                if ((open & bit) != 0) depth++;
+                else if (--depth == 0) {
+                    state.depth = 0;
+                    return i + Long.numberOfTrailingZeros(bit) + 1;
+                }
+            }
+        }
+        state.depth = depth;
+        state.inString = inString != 0;
+        state.escaped = escapedCarry != 0;
+        return super.skipContainer(buffer, i, to, state);
+    }
+
+    @Override
+    public int skipWhiteSpace(ByteBuffer buffer, int from, int to) {
+        if (!buffer.hasArray()) return super.skipWhiteSpace(buffer, from, to);
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset();
+        // compact JSON has no whitespace between most tokens
+        if (from < to && array[base + from] > ' ') return from;
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, array, base + i);
+            VectorMask<Byte> other = v.eq((byte) ' ')
+                    .or(v.eq((byte) '\t'))
+                    .or(v.eq((byte) '\n'))
+                    .or(v.eq((byte) '\r'))
+                    .not();
+            if (other.anyTrue()) return i + other.firstTrue();
+        }
+        return super.skipWhiteSpace(buffer, i, to);
+    }
+
+    /**
+     * 64 bytes per block: masks of quotes, backslashes and structural chars,
+     *      then escaped bytes from the backslashes
+     *      and the inside of strings as the prefix xor of the unescaped quotes.
+     * Bytes after the last full block go through the scalar loop with the carried state.
+     */
+    @Override
+    public boolean index(ByteBuffer buffer, int start, int end, long[] bits) {
+        if (!buffer.hasArray()) return super.index(buffer, start, end, bits);
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset() + start;
+        int length = end - start;
+
+        // all ones while inside a string
+        long inString = 0;
+        // 1 if the first byte of the block is escaped
+        long escapedCarry = 0;
+        int offset = 0;
+        for (; offset + 64 <= length; offset += 64) {
+            long quote = 0;
+            long backslash = 0;
+            long structural = 0;
+            for (int k = 0; k < 64; k += LANES) {
+                ByteVector v = ByteVector.fromArray(SPECIES, array, base + offset + k);
+                // '[' | 0x20 == '{' and ']' | 0x20 == '}'
+                ByteVector folded = v.or((byte) 0x20);
+                quote |= toLong(v.eq((byte) '"')) << k;
+                backslash |= toLong(v.eq((byte) '\\')) << k;
+                structural |= toLong(folded.eq((byte) '{')
+                        .or(folded.eq((byte) '}'))
+                        .or(v.eq((byte) ','))
+                        .or(v.eq((byte) ':'))) << k;
+            }
+
+            long escaped = escapedCarry;
+            escapedCarry = 0;
+            // backslashes are rare, walk them in order
+            for (long rest = backslash & ~escaped; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                if ((escaped & bit) != 0) continue;
+                if (bit == Long.MIN_VALUE) escapedCarry = 1;
+                else escaped |= bit << 1;
+            }
+
+            quote &= ~escaped;
+            long inside = prefixXor(quote) ^ inString;
+            bits[offset >>> 6] = (structural & ~escaped & ~inside) | quote;
+            inString = inside >> 63;
+        }
+        return super.index(buffer, start, start + offset, end, bits, inString != 0, escapedCarry != 0);
+    }
+
+    private static LongVector byteShifts() {
+        long[] shifts = new long[LONG_SPECIES.length()];
+        for (int i = 0; i < shifts.length; i++) shifts[i] = i * 8;
+        return LongVector.fromArray(LONG_SPECIES, shifts, 0);
+    }
+
+    /**
+     * Same as mask.toLong(), which is not an intrinsic on JDK 17:
+     *      gather the lowest bit of 8 bytes per long lane with a multiply, then OR the lanes.
+     */
+    private static long toLong(VectorMask<Byte> mask) {
+        return ZERO.blend((byte) 1, mask).reinterpretAsLongs()
+                .mul(MOVE_MASK)
+                .lanewise(VectorOperators.LSHR, 56)
+                .lanewise(VectorOperators.LSHL, BYTE_SHIFTS)
+                .reduceLanes(VectorOperators.OR);
+    }
+
+    // bit i of the result is the xor of bits 0..i
+    private static long prefixXor(long x) {
+        x ^= x << 1;
+        x ^= x << 2;
+        x ^= x << 4;
+        x ^= x << 8;
+        x ^= x << 16;
+        x ^= x << 32;
+        return x;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dimcirui.jsonparser.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative longs, e.g. latencies in nanoseconds or sizes in bytes.
+ * Bucket i counts the values in [2^(i-1), 2^i), bucket 0 the zeros,
+ *      so a percentile is known within a factor of two, which is enough to alert on.
+ * Each bucket is a LongAdder, so recording from many threads does not contend.
+ */
+public class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    /**
+     * @param value negative values count as 0
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = buckets[i].sum();
+        return new Snapshot(counts, count.sum(), sum.sum(), max.get());
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) bucket.reset();
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * The values recorded up to the time of snapshot().
+     * Taken without stopping writers, so count and buckets may differ by the values recorded meanwhile.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile e.g. 99 for p99
+         * @return upper bound of the bucket that holds the percentile, at most getMax()
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long c : counts) total += c;
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    // (1L << 63) - 1 is Long.MAX_VALUE
+                    return Math.min((1L << i) - 1, max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "{count=" + count + ", mean=" + (long) getMean() + ", p50=" + getPercentile(50) +
+                    ", p99=" + getPercentile(99) + ", max=" + max + "}";
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.dimcirui.jsonparser.metrics;
+
+/**
+ * The figures of a ParseMetrics at one point in time, a plain immutable object to log or export.
+ * Latencies are in nanoseconds, sizes in bytes (chars for String input).
+ */
+public class MetricsSnapshot {
+    private final long documents;
+    private final long failures;
+    private final long inputSize;
+    private final long countedDocuments;
+    private final long tokens;
+    private final long maxDepth;
+    private final long slowDocuments;
+    private final long largeDocuments;
+    private final Histogram.Snapshot latency;
+    private final Histogram.Snapshot lexLatency;
+    private final Histogram.Snapshot parseLatency;
+    private final Histogram.Snapshot inputSizes;
+    private final Histogram.Snapshot allocatedBytes;
+
+    MetricsSnapshot(long documents, long failures, long inputSize, long countedDocuments, long tokens, long maxDepth,
+                    long slowDocuments, long largeDocuments,
+                    Histogram.Snapshot latency, Histogram.Snapshot lexLatency, Histogram.Snapshot parseLatency,
+                    Histogram.Snapshot inputSizes, Histogram.Snapshot allocatedBytes) {
+        this.documents = documents;
+        this.failures = failures;
+        this.inputSize = inputSize;
+        this.countedDocuments = countedDocuments;
+        this.tokens = tokens;
+        this.maxDepth = maxDepth;
+        this.slowDocuments = slowDocuments;
+        this.largeDocuments = largeDocuments;
+        this.latency = latency;
+        this.lexLatency = lexLatency;
+        this.parseLatency = parseLatency;
+        this.inputSizes = inputSizes;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * documents parsed, including the failed ones.
+     * @return
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * total size of the input, of the documents whose size is known.
+     * @return
+     */
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * documents parsed without error whose tokens and depth were counted.
+     * The parallel, tape and lazy modes do not count them, so tokens / countedDocuments is the mean per document.
+     * @return
+     */
+    public long getCountedDocuments() {
+        return countedDocuments;
+    }
+
+    /**
+     * tokens read, by the documents of getCountedDocuments.
+     * @return
+     */
+    public long getTokens() {
+        return tokens;
+    }
+
+    /**
+     * deepest nesting of the documents of getCountedDocuments, 0 if none was counted.
+     * @return
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * documents that took longer than the slow threshold.
+     * @return
+     */
+    public long getSlowDocuments() {
+        return slowDocuments;
+    }
+
+    /**
+     * documents larger than the large threshold.
+     * @return
+     */
+    public long getLargeDocuments() {
+        return largeDocuments;
+    }
+
+    /**
+     * time of each call, from input to result.
+     * @return
+     */
+    public Histogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * time of Lexer.tokenize, only for the entry points where lexing is a separate pass.
+     * @return
+     */
+    public Histogram.Snapshot getLexLatency() {
+        return lexLatency;
+    }
+
+    /**
+     * time of Parser.parse over the tokens, same entry points as getLexLatency.
+     * @return
+     */
+    public Histogram.Snapshot getParseLatency() {
+        return parseLatency;
+    }
+
+    public Histogram.Snapshot getInputSizes() {
+        return inputSizes;
+    }
+
+    /**
+     * heap allocated by the parsing thread per call, empty if the JVM can not measure it.
+     * @return
+     */
+    public Histogram.Snapshot getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "documents=" + documents +
+                ", failures=" + failures +
+                ", inputSize=" + inputSize +
+                ", countedDocuments=" + countedDocuments +
+                ", tokens=" + tokens +
+                ", maxDepth=" + maxDepth +
+                ", slowDocuments=" + slowDocuments +
+                ", largeDocuments=" + largeDocuments +
+                ", latency=" + latency +
+                ", lexLatency=" + lexLatency +
+                ", parseLatency=" + parseLatency +
+                ", inputSizes=" + inputSizes +
+                ", allocatedBytes=" + allocatedBytes +
+                '}';
+    }
+}
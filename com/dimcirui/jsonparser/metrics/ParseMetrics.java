@@ -0,0 +1,342 @@
+package com.dimcirui.jsonparser.metrics;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.dimcirui.jsonparser.lexer.Token;
+import com.dimcirui.jsonparser.lexer.TokenStream;
+import com.dimcirui.jsonparser.lexer.TokenType;
+
+/**
+ * Parse-time metrics of one JSONParser, enabled by passing an instance to its constructor.
+ * A parser without metrics only checks a null field per call.
+ * e.g.
+ *      ParseMetrics metrics = new ParseMetrics();
+ *      JSONParser parser = new JSONParser(metrics);
+ *      metrics.register("orders");   // JMX: com.dimcirui.jsonparser:type=ParseMetrics,name=orders
+ *      MetricsSnapshot snapshot = metrics.snapshot();
+ *
+ * Counters are LongAdders and latencies/sizes go into Histograms, so threads do not contend.
+ * Documents over the slow or the large threshold are counted separately to alert on.
+ * Tokens and depth are only known where the parser reads a TokenStream (fromJSON and the binding calls),
+ *      the parallel, tape and lazy modes record time and size only, see getCountedDocuments.
+ */
+public class ParseMetrics implements ParseMetricsMXBean {
+    public static final long DEFAULT_SLOW_NANOS = 100_000_000L;
+    public static final long DEFAULT_LARGE_SIZE = 10L << 20;
+
+    // null if the JVM can not measure allocations per thread
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final long slowNanos;
+    private final long largeSize;
+
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder inputSize = new LongAdder();
+    private final LongAdder countedDocuments = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder slowDocuments = new LongAdder();
+    private final LongAdder largeDocuments = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final Histogram latency = new Histogram();
+    private final Histogram lexLatency = new Histogram();
+    private final Histogram parseLatency = new Histogram();
+    private final Histogram inputSizes = new Histogram();
+    private final Histogram allocatedBytes = new Histogram();
+
+    public ParseMetrics() {
+        this(DEFAULT_SLOW_NANOS, DEFAULT_LARGE_SIZE);
+    }
+
+    /**
+     * @param slowNanos a call that takes longer is counted as slow
+     * @param largeSize a document that is larger is counted as large, in bytes (chars for String input)
+     */
+    public ParseMetrics(long slowNanos, long largeSize) {
+        this.slowNanos = slowNanos;
+        this.largeSize = largeSize;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (Throwable e) {
+            // e.g. the jdk.management module is missing
+        }
+        return null;
+    }
+
+    /**
+     * Start measuring one call, used by JSONParser.
+     * @param size of the input, -1 if unknown yet
+     * @return
+     */
+    public Sample begin(long size) {
+        return new Sample(size);
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(documents.sum(), failures.sum(), inputSize.sum(),
+                countedDocuments.sum(), tokens.sum(), maxDepth.get(),
+                slowDocuments.sum(), largeDocuments.sum(),
+                latency.snapshot(), lexLatency.snapshot(), parseLatency.snapshot(),
+                inputSizes.snapshot(), allocatedBytes.snapshot());
+    }
+
+    /**
+     * Register with the platform MBeanServer.
+     * @param name the name key of the ObjectName, e.g. the service that owns the parser
+     * @return
+     * @throws JMException If the name is invalid or taken.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("com.dimcirui.jsonparser:type=ParseMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public void reset() {
+        documents.reset();
+        failures.reset();
+        inputSize.reset();
+        countedDocuments.reset();
+        tokens.reset();
+        slowDocuments.reset();
+        largeDocuments.reset();
+        maxDepth.reset();
+        latency.reset();
+        lexLatency.reset();
+        parseLatency.reset();
+        inputSizes.reset();
+        allocatedBytes.reset();
+    }
+
+    @Override
+    public long getDocuments() {
+        return documents.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getInputSize() {
+        return inputSize.sum();
+    }
+
+    @Override
+    public long getCountedDocuments() {
+        return countedDocuments.sum();
+    }
+
+    @Override
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    @Override
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long getSlowDocuments() {
+        return slowDocuments.sum();
+    }
+
+    @Override
+    public long getLargeDocuments() {
+        return largeDocuments.sum();
+    }
+
+    @Override
+    public double getLatencyMeanMicros() {
+        return latency.snapshot().getMean() / 1000;
+    }
+
+    @Override
+    public long getLatencyP99Micros() {
+        return latency.snapshot().getPercentile(99) / 1000;
+    }
+
+    @Override
+    public long getLatencyMaxMicros() {
+        return latency.snapshot().getMax() / 1000;
+    }
+
+    @Override
+    public double getLexMeanMicros() {
+        return lexLatency.snapshot().getMean() / 1000;
+    }
+
+    @Override
+    public double getParseMeanMicros() {
+        return parseLatency.snapshot().getMean() / 1000;
+    }
+
+    @Override
+    public long getInputSizeP99() {
+        return inputSizes.snapshot().getPercentile(99);
+    }
+
+    @Override
+    public long getInputSizeMax() {
+        return inputSizes.snapshot().getMax();
+    }
+
+    @Override
+    public double getAllocatedBytesMean() {
+        return allocatedBytes.snapshot().getMean();
+    }
+
+    /**
+     * The measurements of one call, owned by the calling thread until end() or fail().
+     */
+    public class Sample {
+        private final long start = System.nanoTime();
+        private final long startAllocated = THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+        private long size;
+        private long lexed = -1;
+        private long tokenCount;
+
+        private Sample(long size) {
+            this.size = size;
+        }
+
+        /**
+         * Count the tokens the parser reads from the stream.
+         * @param tokens
+         * @return
+         */
+        public TokenStream count(TokenStream tokens) {
+            return new CountingTokenStream(tokens);
+        }
+
+        /**
+         * Count the chars read, for input whose size is not known up front.
+         * @param reader
+         * @return
+         */
+        public Reader count(Reader reader) {
+            size = 0;
+            return new FilterReader(reader) {
+                @Override
+                public int read() throws IOException {
+                    int ch = super.read();
+                    if (ch >= 0) size++;
+                    return ch;
+                }
+
+                @Override
+                public int read(char[] buffer, int offset, int length) throws IOException {
+                    int count = super.read(buffer, offset, length);
+                    if (count > 0) size += count;
+                    return count;
+                }
+            };
+        }
+
+        /**
+         * The lexer is done and the parser starts, for entry points where they are separate passes.
+         * @param tokenCount tokens produced by the lexer, without END_DOCUMENT
+         */
+        public void lexed(int tokenCount) {
+            this.lexed = System.nanoTime();
+            this.tokenCount = tokenCount;
+        }
+
+        /**
+         * The call returned a result, its tokens were counted.
+         * @param depth deepest nesting of the document
+         */
+        public void end(int depth) {
+            record(depth);
+        }
+
+        /**
+         * The call returned a result, its tokens and depth are not known.
+         */
+        public void end() {
+            record(-1);
+        }
+
+        /**
+         * The call threw, the tokens read before the error are not counted.
+         */
+        public void fail() {
+            failures.increment();
+            record(-1);
+        }
+
+        // depth -1 if the tokens and depth are not known
+        private void record(int depth) {
+            long now = System.nanoTime();
+            long nanos = now - start;
+            documents.increment();
+            latency.record(nanos);
+            if (nanos > slowNanos) slowDocuments.increment();
+            if (lexed >= 0) {
+                lexLatency.record(lexed - start);
+                parseLatency.record(now - lexed);
+            }
+            if (size >= 0) {
+                inputSize.add(size);
+                inputSizes.record(size);
+                if (size > largeSize) largeDocuments.increment();
+            }
+            if (depth >= 0) {
+                countedDocuments.increment();
+                tokens.add(tokenCount);
+                maxDepth.accumulate(depth);
+            }
+            if (THREADS != null) allocatedBytes.record(THREADS.getCurrentThreadAllocatedBytes() - startAllocated);
+        }
+
+        private class CountingTokenStream implements TokenStream {
+            private final TokenStream tokens;
+
+            CountingTokenStream(TokenStream tokens) {
+                this.tokens = tokens;
+            }
+
+            @Override
+            public Token next() {
+                Token token = tokens.next();
+                if (token != null && token.getTokenType() != TokenType.END_DOCUMENT) tokenCount++;
+                return token;
+            }
+
+            @Override
+            public boolean hasMore() {
+                return tokens.hasMore();
+            }
+
+            @Override
+            public Token peekPrevious() {
+                return tokens.peekPrevious();
+            }
+
+            @Override
+            public Token skipContainer() {
+                return tokens.skipContainer();
+            }
+        }
+    }
+}
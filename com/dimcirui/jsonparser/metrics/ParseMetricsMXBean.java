@@ -0,0 +1,41 @@
+package com.dimcirui.jsonparser.metrics;
+
+/**
+ * JMX view of ParseMetrics, see ParseMetrics.register.
+ * Latencies are in microseconds, sizes in bytes (chars for String input).
+ */
+public interface ParseMetricsMXBean {
+    long getDocuments();
+
+    long getFailures();
+
+    long getInputSize();
+
+    long getCountedDocuments();
+
+    long getTokens();
+
+    long getMaxDepth();
+
+    long getSlowDocuments();
+
+    long getLargeDocuments();
+
+    double getLatencyMeanMicros();
+
+    long getLatencyP99Micros();
+
+    long getLatencyMaxMicros();
+
+    double getLexMeanMicros();
+
+    double getParseMeanMicros();
+
+    long getInputSizeP99();
+
+    long getInputSizeMax();
+
+    double getAllocatedBytesMean();
+
+    void reset();
+}
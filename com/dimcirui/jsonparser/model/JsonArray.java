@@ -1,50 +1,308 @@
-package com.dimcirui.jsonparser.model;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Iterator;
-
-import com.dimcirui.jsonparser.exception.*;
-
-/**
- * JsonArray is an ordered collection of values.
- * A JsonArray starts with '[' and ends with ']',
- *      and uses ',' to separate values.
- * A value could be null, a string, a num, a boolean, an object or an array.
- *      A value allows these structures to be nested.
- * e.g. ["Bob", true, {"name": "Alice", "age": 23}]
- */
-public class JsonArray implements Iterable<Object> {
-    private List<Object> list = new ArrayList<>();
-
-    public void add(Object obj) {
-        list.add(obj);
-    }
-
-    public Object get(int index) {
-        return list.get(index);
-    }
-
-    public int size() {
-        return list.size();
-    }
-
-    public JsonObject getJsonObject(int index) {
-        return getType(index, JsonObject.class);
-    }
-
-    public JsonArray getJsonArray(int index) {
-        return getType(index, JsonArray.class);
-    }
-
-    private <T> T getType(int index, Class<T> type) {
-        Object obj = list.get(index);
-        if (!type.isInstance(obj)) throw new JsonTypeException("Element at index " + index + " is not of type " + type.getSimpleName());
-
-        return type.cast(obj);
-    }
-
-    public Iterator<Object> iterator() {
-        return list.iterator();
-    }
-}
\ No newline at end of file
+package com.dimcirui.jsonparser.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * JsonArray is an ordered collection of values.
+ * A JsonArray starts with '[' and ends with ']',
+ *      and uses ',' to separate values.
+ * A value could be null, a string, a num, a boolean, an object or an array.
+ *      A value allows these structures to be nested.
+ * e.g. ["Bob", true, {"name": "Alice", "age": 23}]
+ *
+ * While all elements are integers (or all are doubles), they are kept unboxed
+ *      in an int[], long[] or double[].
+ * An int[] is widened to a long[] when a larger integer arrives,
+ *      any other element moves the array to boxed storage for good.
+ * Integers from addLong come back as Integer if they fit in an int, otherwise as Long, like the parser makes them,
+ *      add(Object) keeps the object, so a small Long moves the array to boxed storage.
+ * After freeze() the array and everything in it are read-only and may be shared between threads.
+ */
+public class JsonArray implements Iterable<Object> {
+    private static final int EMPTY = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 4;
+    private static final int BOXED = 8;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int mode = EMPTY;
+    private int size = 0;
+    // only the store of the current mode is used
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private List<Object> list;
+    private boolean frozen;
+
+    public void add(Object obj) {
+        checkMutable();
+        // an element comes back as the object that was added, a Long that fits in an int would come back as Integer
+        if (obj instanceof Integer || obj instanceof Long && (long) obj != (int) (long) obj) {
+            addLong(((Number) obj).longValue());
+        }
+        else if (obj instanceof Double) {
+            addDouble((Double) obj);
+        }
+        else {
+            toBoxed();
+            list.add(obj);
+            size++;
+        }
+    }
+
+    /**
+     * add an integer without boxing it.
+     * @param value
+     */
+    public void addLong(long value) {
+        checkMutable();
+        boolean isInt = (int) value == value;
+        if (mode == EMPTY) {
+            if (isInt) {
+                mode = INT;
+                ints = new int[INITIAL_CAPACITY];
+            }
+            else {
+                mode = LONG;
+                longs = new long[INITIAL_CAPACITY];
+            }
+        }
+        else if (mode == INT && !isInt) {
+            longs = new long[Math.max(ints.length, INITIAL_CAPACITY)];
+            for (int i = 0; i < size; i++) longs[i] = ints[i];
+            ints = null;
+            mode = LONG;
+        }
+
+        if (mode == INT) {
+            if (size == ints.length) ints = Arrays.copyOf(ints, size * 2);
+            ints[size++] = (int) value;
+        }
+        else if (mode == LONG) {
+            if (size == longs.length) longs = Arrays.copyOf(longs, size * 2);
+            longs[size++] = value;
+        }
+        else {
+            toBoxed();
+            list.add(box(value));
+            size++;
+        }
+    }
+
+    /**
+     * add a double without boxing it.
+     * @param value
+     */
+    public void addDouble(double value) {
+        checkMutable();
+        if (mode == EMPTY) {
+            mode = DOUBLE;
+            doubles = new double[INITIAL_CAPACITY];
+        }
+        if (mode == DOUBLE) {
+            if (size == doubles.length) doubles = Arrays.copyOf(doubles, size * 2);
+            doubles[size++] = value;
+        }
+        else {
+            toBoxed();
+            list.add(value);
+            size++;
+        }
+    }
+
+    public Object get(int index) {
+        Objects.checkIndex(index, size);
+        switch (mode) {
+            case INT: return ints[index];
+            case LONG: return box(longs[index]);
+            case DOUBLE: return doubles[index];
+        }
+        Object obj = list.get(index);
+        if (obj instanceof LazyValue) {
+            obj = ((LazyValue) obj).resolve();
+            list.set(index, obj);
+        }
+        return obj;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index
+     * @return
+     * @throws JsonTypeException If the element is not a number, or an integer that does not fit in an int.
+     */
+    public int getInt(int index) {
+        Objects.checkIndex(index, size);
+        if (mode == INT) return ints[index];
+        long value = getLong(index);
+        if ((int) value != value) throw new JsonTypeException("Element at index " + index + " does not fit in an int");
+        return (int) value;
+    }
+
+    /**
+     * A double is truncated, like JsonReader.getLong.
+     * @param index
+     * @return
+     * @throws JsonTypeException If the element is not a number.
+     */
+    public long getLong(int index) {
+        Objects.checkIndex(index, size);
+        switch (mode) {
+            case INT: return ints[index];
+            case LONG: return longs[index];
+            case DOUBLE: return (long) doubles[index];
+        }
+        return getType(index, Number.class).longValue();
+    }
+
+    /**
+     * @param index
+     * @return
+     * @throws JsonTypeException If the element is not a number.
+     */
+    public double getDouble(int index) {
+        Objects.checkIndex(index, size);
+        switch (mode) {
+            case INT: return ints[index];
+            case LONG: return longs[index];
+            case DOUBLE: return doubles[index];
+        }
+        return getType(index, Number.class).doubleValue();
+    }
+
+    /**
+     * The elements as longs, see getLong.
+     * Backed by the array while it is unboxed, so nothing is boxed.
+     * @return
+     * @throws JsonTypeException If an element is not a number.
+     */
+    public LongStream longStream() {
+        switch (mode) {
+            case INT: return Arrays.stream(ints, 0, size).asLongStream();
+            case LONG: return Arrays.stream(longs, 0, size);
+            case DOUBLE: return Arrays.stream(doubles, 0, size).mapToLong(value -> (long) value);
+        }
+        return IntStream.range(0, size).mapToLong(this::getLong);
+    }
+
+    /**
+     * The elements as doubles, see getDouble.
+     * Backed by the array while it is unboxed, so nothing is boxed.
+     * @return
+     * @throws JsonTypeException If an element is not a number.
+     */
+    public DoubleStream doubleStream() {
+        switch (mode) {
+            case INT: return Arrays.stream(ints, 0, size).asDoubleStream();
+            case LONG: return Arrays.stream(longs, 0, size).asDoubleStream();
+            case DOUBLE: return Arrays.stream(doubles, 0, size);
+        }
+        return IntStream.range(0, size).mapToDouble(this::getDouble);
+    }
+
+    /**
+     * check if all elements are integers kept unboxed, so getLong reads them without boxing.
+     * @return
+     */
+    public boolean isUnboxedIntegers() {
+        return mode == INT || mode == LONG;
+    }
+
+    /**
+     * check if all elements are doubles kept unboxed, so getDouble reads them without boxing.
+     * @return
+     */
+    public boolean isUnboxedDoubles() {
+        return mode == DOUBLE;
+    }
+
+    public JsonObject getJsonObject(int index) {
+        return getType(index, JsonObject.class);
+    }
+
+    public JsonArray getJsonArray(int index) {
+        return getType(index, JsonArray.class);
+    }
+
+    private <T> T getType(int index, Class<T> type) {
+        Object obj = get(index);
+        if (!type.isInstance(obj)) throw new JsonTypeException("Element at index " + index + " is not of type " + type.getSimpleName());
+
+        return type.cast(obj);
+    }
+
+    /**
+     * Make this array and all nested objects and arrays read-only, e.g. to share a cached document.
+     * Lazy values are resolved first, so reading a frozen array never writes to it.
+     * @return this
+     */
+    public JsonArray freeze() {
+        if (frozen) return this;
+        if (mode == BOXED) {
+            for (int i = 0; i < size; i++) {
+                Object obj = get(i);
+                if (obj instanceof JsonObject) ((JsonObject) obj).freeze();
+                else if (obj instanceof JsonArray) ((JsonArray) obj).freeze();
+            }
+        }
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkMutable() {
+        if (frozen) throw new UnsupportedOperationException("JsonArray is read-only");
+    }
+
+    // Integer if it fits, like Token.getNumber
+    private static Object box(long value) {
+        if ((int) value == value) return (int) value;
+        return value;
+    }
+
+    // move the elements to the list, the array stays boxed from now on
+    private void toBoxed() {
+        if (mode == BOXED) return;
+        list = new ArrayList<>(Math.max(size * 2, INITIAL_CAPACITY));
+        for (int i = 0; i < size; i++) list.add(get(i));
+        ints = null;
+        longs = null;
+        doubles = null;
+        mode = BOXED;
+    }
+
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+}
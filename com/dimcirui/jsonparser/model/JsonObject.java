@@ -1,50 +1,236 @@
-package com.dimcirui.jsonparser.model;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import com.dimcirui.jsonparser.exception.*;
-
-/**
- * JsonObject is an unordered collection of key-value pairs.
- * A JsonObject starts with '{' and ends with '}',
- *      and uses ',' to separate key-value pairs.
- * A key must be a string.
- *      Each key is followed by a ':'
- * A value could be a string, a num, true/false, a object or an array.
- *      A value allows these structures to be nested
- * e.g. {"name": "Alice", "age": 23, ["Bob", true]}
- */
-public class JsonObject {
-    private Map<String, Object> map = new HashMap<>();
-
-    public void put(String key, Object value) {
-        map.put(key, value);
-    }
-
-    public Object get(String key) {
-        return map.get(key);
-    }
-
-    public List<Map.Entry<String, Object>> getAllKeyValue() {
-        return new ArrayList<>(map.entrySet());
-    }
-
-    public JsonObject getJsonObject(String key) {
-        return getType(key, JsonObject.class);
-    }
-
-    public JsonArray getJsonArray(String key) {
-        return getType(key, JsonArray.class);
-    }
-
-    private <T> T getType(String key, Class<T> type) {
-        if (!map.containsKey(key)) throw new JsonTypeException("Invalid key:" + key);
-
-        Object obj = map.get(key);
-        if (!type.isInstance(obj)) throw new JsonTypeException("Value associated with key " + key + " is not of type " + type.getSimpleName());
-
-        return type.cast(obj);
-    }
-}
+package com.dimcirui.jsonparser.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * JsonObject is an unordered collection of key-value pairs.
+ * A JsonObject starts with '{' and ends with '}',
+ *      and uses ',' to separate key-value pairs.
+ * A key must be a string.
+ *      Each key is followed by a ':'
+ * A value could be a string, a num, true/false, a object or an array.
+ *      A value allows these structures to be nested
+ * e.g. {"name": "Alice", "age": 23, ["Bob", true]}
+ *
+ * Keys and values are kept in two arrays in insertion order, without an entry object per pair.
+ * Up to 8 pairs a lookup scans the keys, which are mostly the same interned Strings (see SymbolTable),
+ *      larger objects add an open-addressing table of indexes into the arrays.
+ * After freeze() the object and everything in it are read-only and may be shared between threads.
+ */
+public class JsonObject {
+    private static final int INITIAL_CAPACITY = 4;
+    // more pairs than this get a hash table
+    private static final int MAX_SCAN = 8;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+    // two ints per slot: index + 1 of the pair (0 for an empty slot) and the hash of its key,
+    //      null while size <= MAX_SCAN
+    private int[] table;
+    private boolean frozen;
+
+    public void put(String key, Object value) {
+        checkMutable();
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        if (table != null && size > table.length / 4) {
+            rehash(table.length);
+        }
+        else if (table != null) {
+            insert(size - 1);
+        }
+        else if (size > MAX_SCAN) {
+            // load factor at most 0.5
+            rehash(Integer.highestOneBit(size) * 4);
+        }
+    }
+
+    public Object get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : value(index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The pairs in insertion order.
+     * A view backed by this object, nothing is copied,
+     *      Entry.setValue writes through and put shows up in the view.
+     * @return
+     */
+    public List<Map.Entry<String, Object>> getAllKeyValue() {
+        return new AbstractList<Map.Entry<String, Object>>() {
+            @Override
+            public Map.Entry<String, Object> get(int index) {
+                if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                return new Entry(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Make this object and all nested objects and arrays read-only, e.g. to share a cached document.
+     * Lazy values are resolved first, so reading a frozen object never writes to it.
+     * @return this
+     */
+    public JsonObject freeze() {
+        if (frozen) return this;
+        for (int i = 0; i < size; i++) {
+            Object value = value(i);
+            if (value instanceof JsonObject) ((JsonObject) value).freeze();
+            else if (value instanceof JsonArray) ((JsonArray) value).freeze();
+        }
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkMutable() {
+        if (frozen) throw new UnsupportedOperationException("JsonObject is read-only");
+    }
+
+    public JsonObject getJsonObject(String key) {
+        return getType(key, JsonObject.class);
+    }
+
+    public JsonArray getJsonArray(String key) {
+        return getType(key, JsonArray.class);
+    }
+
+    private <T> T getType(String key, Class<T> type) {
+        int index = indexOf(key);
+        if (index < 0) throw new JsonTypeException("Invalid key:" + key);
+
+        Object obj = value(index);
+        if (!type.isInstance(obj)) throw new JsonTypeException("Value associated with key " + key + " is not of type " + type.getSimpleName());
+
+        return type.cast(obj);
+    }
+
+    private Object value(int index) {
+        Object value = values[index];
+        if (value instanceof LazyValue) {
+            value = ((LazyValue) value).resolve();
+            values[index] = value;
+        }
+        return value;
+    }
+
+    // index of the pair with this key, or -1
+    private int indexOf(String key) {
+        if (table == null) {
+            // interned keys are mostly the same String, so compare references before contents
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) return i;
+            }
+            for (int i = 0; i < size; i++) {
+                if (key != null && key.equals(keys[i])) return i;
+            }
+            return -1;
+        }
+        int hash = hash(key);
+        int mask = (table.length >> 1) - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int index = table[slot << 1] - 1;
+            if (index < 0) return -1;
+            if (table[(slot << 1) + 1] == hash) {
+                String k = keys[index];
+                if (k == key || (k != null && k.equals(key))) return index;
+            }
+        }
+    }
+
+    // slots is a power of two
+    private void rehash(int slots) {
+        table = new int[slots << 1];
+        for (int i = 0; i < size; i++) insert(i);
+    }
+
+    private void insert(int index) {
+        int hash = hash(keys[index]);
+        int mask = (table.length >> 1) - 1;
+        int slot = hash & mask;
+        while (table[slot << 1] != 0) slot = (slot + 1) & mask;
+        table[slot << 1] = index + 1;
+        table[(slot << 1) + 1] = hash;
+    }
+
+    private static int hash(String key) {
+        if (key == null) return 0;
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A pair of the object, by index, see getAllKeyValue.
+     */
+    private class Entry implements Map.Entry<String, Object> {
+        private final int index;
+
+        Entry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return value(index);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            checkMutable();
+            Object old = value(index);
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey()) &&
+                   Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.dimcirui.jsonparser.model;
+
+/**
+ * A value that has been located in the input but not parsed yet.
+ * JsonObject and JsonArray resolve it the first time it is read
+ *      and keep the result in its place.
+ * An abstract class rather than an interface: every read checks instanceof LazyValue,
+ *      and a check against a class is a constant-time lookup,
+ *      while a failed check against an interface scans the secondary supers of the value's class.
+ */
+public abstract class LazyValue {
+    public abstract Object resolve();
+}
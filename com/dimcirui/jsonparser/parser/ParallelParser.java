@@ -0,0 +1,194 @@
+package com.dimcirui.jsonparser.parser;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.StructuralIndex;
+import com.dimcirui.jsonparser.lexer.SymbolTable;
+import com.dimcirui.jsonparser.model.JsonArray;
+
+/**
+ * Two-phase parser for a huge document whose root is an array.
+ * Phase 1 builds a StructuralIndex and uses it to find the top-level elements,
+ *      phase 2 parses ranges of elements on a fork-join pool,
+ *      each task with its own ByteLexer and Parser.
+ * The elements are collected into one JsonArray in their original order.
+ *
+ * Any other root, or a document smaller than the threshold, is parsed sequentially.
+ * If anything goes wrong in the parallel path the whole document is parsed again sequentially,
+ *      so a malformed document fails with exactly the error of an ordinary parse.
+ */
+public class ParallelParser {
+    private static final int DEFAULT_THRESHOLD = 1 << 20;
+    // bytes parsed by one task before it stops splitting
+    private static final int MIN_TASK_BYTES = 64 << 10;
+
+    private final ForkJoinPool pool;
+    private final SymbolTable symbolTable;
+    private final int threshold;
+
+    public ParallelParser() {
+        this(ForkJoinPool.commonPool(), new SymbolTable());
+    }
+
+    public ParallelParser(ForkJoinPool pool, SymbolTable symbolTable) {
+        this(pool, symbolTable, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool
+     * @param symbolTable shared by the lexers of all tasks
+     * @param threshold documents smaller than this many bytes are parsed sequentially
+     */
+    public ParallelParser(ForkJoinPool pool, SymbolTable symbolTable, int threshold) {
+        this.pool = pool;
+        this.symbolTable = symbolTable;
+        this.threshold = threshold;
+    }
+
+    public Object parse(byte[] json) {
+        return parse(ByteBuffer.wrap(json));
+    }
+
+    /**
+     * Parse the UTF-8 encoded bytes between position and limit of the buffer.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public Object parse(ByteBuffer json) {
+        if (json.remaining() < threshold) return parseSequential(json);
+
+        Elements elements = findElements(StructuralIndex.build(json));
+        if (elements == null) return parseSequential(json);
+
+        Object[] values = new Object[elements.count];
+        if (values.length == 0) return new JsonArray();
+        try {
+            pool.invoke(new ParseTask(json, elements, values, 0, elements.count));
+        } catch (RuntimeException e) {
+            // reproduce the error of a sequential parse
+            return parseSequential(json);
+        }
+
+        JsonArray jsonArray = new JsonArray();
+        for (Object value : values) jsonArray.add(value);
+        return jsonArray;
+    }
+
+    private Object parseSequential(ByteBuffer json) {
+        return new Parser().parse(new ByteLexer(symbolTable).stream(json));
+    }
+
+    /**
+     * Start and end of every element of the root array, from the structural bits.
+     * @return null if the root is not an array or the brackets do not add up
+     */
+    private Elements findElements(StructuralIndex index) {
+        ByteBuffer buffer = index.getBuffer();
+        int first = index.getStart();
+        while (first < index.getEnd() && isWhiteSpace(buffer.get(first))) first++;
+        if (first == index.getEnd() || buffer.get(first) != '[' || !index.isClosed()) return null;
+
+        Elements elements = new Elements();
+        int depth = 1;
+        int elementStart = first + 1;
+        for (int i = index.next(first + 1); i >= 0; i = index.next(i + 1)) {
+            switch (buffer.get(i)) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 0) {
+                        if (buffer.get(i) != ']') return null;
+                        // [] has no elements, [ , ] is left to the parser
+                        if (elements.count > 0 || !isBlank(buffer, elementStart, i)) {
+                            elements.add(elementStart, i);
+                        }
+                        return elements;
+                    }
+                    break;
+                case ',':
+                    if (depth == 1) {
+                        elements.add(elementStart, i);
+                        elementStart = i + 1;
+                    }
+                    break;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isWhiteSpace(buffer.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhiteSpace(byte b) {
+        return (b == ' ' || b == '\t' ||
+                b == '\n' || b == '\r');
+    }
+
+    // growable start/end pairs
+    private static class Elements {
+        private int[] starts = new int[1024];
+        private int[] ends = new int[1024];
+        private int count = 0;
+
+        void add(int start, int end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+    }
+
+    /**
+     * Parse elements [from, to), split in halves while the range is large.
+     */
+    private class ParseTask extends RecursiveAction {
+        private final ByteBuffer json;
+        private final Elements elements;
+        private final Object[] values;
+        private final int from;
+        private final int to;
+
+        ParseTask(ByteBuffer json, Elements elements, Object[] values, int from, int to) {
+            this.json = json;
+            this.elements = elements;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int bytes = elements.ends[to - 1] - elements.starts[from];
+            if (to - from > 1 && bytes > MIN_TASK_BYTES) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(json, elements, values, from, middle),
+                          new ParseTask(json, elements, values, middle, to));
+                return;
+            }
+
+            ByteLexer byteLexer = new ByteLexer(symbolTable);
+            Parser parser = new Parser();
+            ByteBuffer slice = json.duplicate();
+            for (int i = from; i < to; i++) {
+                slice.limit(elements.ends[i]);
+                slice.position(elements.starts[i]);
+                values[i] = parser.parseValue(byteLexer.stream(slice));
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.dimcirui.jsonparser.path;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.lexer.TokenStream;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+import com.dimcirui.jsonparser.tape.TapeArray;
+import com.dimcirui.jsonparser.tape.TapeObject;
+
+/**
+ * A compiled JSONPath expression, immutable and reusable across documents and threads.
+ * Supported: $ root, .name / ['name'] child, * wildcard, [0] / [-1] index,
+ *      [start:end:step] slice and .. recursive descent.
+ * e.g. $.employees[*].skills[0], $..name, $.list[-2:]
+ *
+ * The path runs as an NFA: state i means segments [0, i) matched,
+ *      a value carries the set of its states as a bitmask.
+ * On a token stream, a value without states is skipped without building any objects,
+ *      only matched values are materialized.
+ * Matches are returned in document order, for trees in the iteration order of the containers.
+ */
+public class JsonPath {
+    private final String expression;
+    private final Segment[] segments;
+    // state of a value that matched the whole path
+    private final long accept;
+    // states whose segment needs the length of the array
+    private final long lengthStates;
+
+    private JsonPath(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+        this.accept = 1L << segments.length;
+        long states = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].needsLength()) states |= 1L << i;
+        }
+        this.lengthStates = states;
+    }
+
+    /**
+     * @param expression
+     * @return
+     * @throws JsonPathException If the expression is not a valid path.
+     */
+    public static JsonPath compile(String expression) {
+        return new JsonPath(expression, new PathCompiler(expression).compile());
+    }
+
+    /**
+     * Evaluate against a JsonObject/JsonArray (or TapeObject/TapeArray) tree.
+     * @param root
+     * @return matched values
+     */
+    public List<Object> select(Object root) {
+        List<Object> results = new ArrayList<>();
+        visit(root, 1L, results);
+        return results;
+    }
+
+    /**
+     * Evaluate while reading the next value of the reader.
+     * @param reader
+     * @return matched values
+     * @throws IOException
+     * @throws JsonParseException If the document is not well-formed.
+     */
+    public List<Object> select(JsonReader reader) throws IOException {
+        List<Object> results = new ArrayList<>();
+        if (reader.nextEvent() == JsonEvent.END_DOCUMENT) return results;
+        visit(reader, 1L, results);
+        return results;
+    }
+
+    /**
+     * Evaluate against a token stream, e.g. Lexer.stream or ByteLexer.stream.
+     * A PushLexer must have been fed the whole document.
+     * @param tokens
+     * @return matched values
+     * @throws IllegalStateException If the stream runs out of input before the document ends.
+     */
+    public List<Object> select(TokenStream tokens) {
+        try {
+            return select(new JsonReader(tokens));
+        } catch (IOException e) {
+            // a TokenStream reports IOExceptions unchecked
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Object> select(Reader json) throws IOException {
+        try (JsonReader reader = new JsonReader(json)) {
+            return select(reader);
+        }
+    }
+
+    // the current event of the reader starts the value
+    private void visit(JsonReader reader, long states, List<Object> results) throws IOException {
+        JsonEvent event = checkComplete(reader.currentEvent());
+        if (states == 0) {
+            reader.skipValue();
+            return;
+        }
+        if ((states & accept) != 0 || (event == JsonEvent.START_ARRAY && (states & lengthStates) != 0)) {
+            visit(reader.readValue(), states, results);
+            return;
+        }
+
+        if (event == JsonEvent.START_OBJECT) {
+            while (reader.nextEvent() == JsonEvent.KEY_NAME) {
+                long childStates = memberStates(states, reader.getString());
+                reader.nextEvent();
+                visit(reader, childStates, results);
+            }
+            checkComplete(reader.currentEvent());
+        }
+        else if (event == JsonEvent.START_ARRAY) {
+            int index = 0;
+            while (reader.nextEvent() != JsonEvent.END_ARRAY) {
+                visit(reader, elementStates(states, index++, Integer.MAX_VALUE), results);
+            }
+        }
+    }
+
+    private static JsonEvent checkComplete(JsonEvent event) {
+        if (event == JsonEvent.NEED_MORE_INPUT) {
+            throw new IllegalStateException("Incomplete input, the rest of the document has not been fed yet");
+        }
+        return event;
+    }
+
+    private void visit(Object value, long states, List<Object> results) {
+        if (states == 0) return;
+        if ((states & accept) != 0) results.add(value);
+        if ((states & ~accept) == 0) return;
+
+        if (value instanceof JsonObject) {
+            for (Map.Entry<String, Object> entry : ((JsonObject) value).getAllKeyValue()) {
+                visit(entry.getValue(), memberStates(states, entry.getKey()), results);
+            }
+        }
+        else if (value instanceof JsonArray) {
+            JsonArray jsonArray = (JsonArray) value;
+            int length = jsonArray.size();
+            for (int i = 0; i < length; i++) {
+                visit(jsonArray.get(i), elementStates(states, i, length), results);
+            }
+        }
+        else if (value instanceof TapeObject) {
+            for (Map.Entry<String, Object> entry : ((TapeObject) value).getAllKeyValue()) {
+                visit(entry.getValue(), memberStates(states, entry.getKey()), results);
+            }
+        }
+        else if (value instanceof TapeArray) {
+            TapeArray tapeArray = (TapeArray) value;
+            int length = tapeArray.size();
+            for (int i = 0; i < length; i++) {
+                visit(tapeArray.get(i), elementStates(states, i, length), results);
+            }
+        }
+    }
+
+    // states of the member with this key, from the states of its object
+    private long memberStates(long states, String key) {
+        long next = 0;
+        for (long rest = states & ~accept; rest != 0; rest &= rest - 1) {
+            int i = Long.numberOfTrailingZeros(rest);
+            Segment segment = segments[i];
+            if (segment.descendant) next |= 1L << i;
+            if (segment.matchesName(key)) next |= 1L << (i + 1);
+        }
+        return next;
+    }
+
+    // states of the element at this index, from the states of its array
+    private long elementStates(long states, int index, int length) {
+        long next = 0;
+        for (long rest = states & ~accept; rest != 0; rest &= rest - 1) {
+            int i = Long.numberOfTrailingZeros(rest);
+            Segment segment = segments[i];
+            if (segment.descendant) next |= 1L << i;
+            if (segment.matchesIndex(index, length)) next |= 1L << (i + 1);
+        }
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Recursive descent over the expression, one segment at a time.
+     */
+    private static class PathCompiler {
+        // states are bits of a long, one more than the segments
+        private static final int MAX_SEGMENTS = 63;
+
+        private final String expression;
+        private int pos = 0;
+
+        PathCompiler(String expression) {
+            this.expression = expression;
+        }
+
+        Segment[] compile() {
+            List<Segment> segments = new ArrayList<>();
+            skipSpaces();
+            expect('$');
+            while (pos < expression.length()) {
+                char ch = expression.charAt(pos);
+                if (ch == '.') {
+                    pos++;
+                    boolean descendant = false;
+                    if (pos < expression.length() && expression.charAt(pos) == '.') {
+                        pos++;
+                        descendant = true;
+                    }
+                    if (pos < expression.length() && expression.charAt(pos) == '[') {
+                        if (!descendant) throw error("Unexpected '['");
+                        segments.add(readBracket(true));
+                    }
+                    else if (pos < expression.length() && expression.charAt(pos) == '*') {
+                        pos++;
+                        segments.add(Segment.wildcard(descendant));
+                    }
+                    else {
+                        segments.add(Segment.name(readName(), descendant));
+                    }
+                }
+                else if (ch == '[') {
+                    segments.add(readBracket(false));
+                }
+                else if (ch == ' ') {
+                    skipSpaces();
+                    if (pos < expression.length()) throw error("Unexpected space");
+                }
+                else {
+                    throw error("Unexpected character '" + ch + "'");
+                }
+                if (segments.size() > MAX_SEGMENTS) throw error("Too many segments");
+            }
+            return segments.toArray(new Segment[0]);
+        }
+
+        private Segment readBracket(boolean descendant) {
+            expect('[');
+            skipSpaces();
+            Segment segment;
+            char ch = peek();
+            if (ch == '*') {
+                pos++;
+                segment = Segment.wildcard(descendant);
+            }
+            else if (ch == '\'' || ch == '"') {
+                segment = Segment.name(readQuoted(ch), descendant);
+            }
+            else {
+                Integer start = readInteger();
+                skipSpaces();
+                if (peek() != ':') {
+                    if (start == null) throw error("Expected an index");
+                    segment = Segment.index(start, descendant);
+                }
+                else {
+                    pos++;
+                    skipSpaces();
+                    Integer end = readInteger();
+                    skipSpaces();
+                    int step = 1;
+                    if (peek() == ':') {
+                        pos++;
+                        skipSpaces();
+                        Integer value = readInteger();
+                        if (value != null) step = value;
+                    }
+                    segment = Segment.slice(start, end, step, descendant);
+                }
+            }
+            skipSpaces();
+            expect(']');
+            return segment;
+        }
+
+        // a dotted name ends at the next '.', '[' or space
+        private String readName() {
+            int start = pos;
+            while (pos < expression.length()) {
+                char ch = expression.charAt(pos);
+                if (ch == '.' || ch == '[' || ch == ' ') break;
+                pos++;
+            }
+            if (pos == start) throw error("Expected a name");
+            return expression.substring(start, pos);
+        }
+
+        private String readQuoted(char quote) {
+            pos++;
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= expression.length()) throw error("Unterminated name");
+                char ch = expression.charAt(pos++);
+                if (ch == quote) return sb.toString();
+                if (ch == '\\') {
+                    if (pos >= expression.length()) throw error("Unterminated name");
+                    ch = expression.charAt(pos++);
+                }
+                sb.append(ch);
+            }
+        }
+
+        // null if there is no integer here
+        private Integer readInteger() {
+            int start = pos;
+            if (pos < expression.length() && expression.charAt(pos) == '-') pos++;
+            while (pos < expression.length() && Character.isDigit(expression.charAt(pos))) pos++;
+            if (pos == start) return null;
+            try {
+                return Integer.parseInt(expression.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Invalid integer");
+            }
+        }
+
+        private char peek() {
+            if (pos >= expression.length()) throw error("Unexpected end");
+            return expression.charAt(pos);
+        }
+
+        private void expect(char ch) {
+            if (peek() != ch) throw error("Expected '" + ch + "'");
+            pos++;
+        }
+
+        private void skipSpaces() {
+            while (pos < expression.length() && expression.charAt(pos) == ' ') pos++;
+        }
+
+        private JsonPathException error(String message) {
+            return new JsonPathException(message + " at " + pos + " in JSON path: " + expression);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.dimcirui.jsonparser.path;
+
+/**
+ * One step of a JsonPath: which members or elements of a container it selects,
+ *      and whether it applies to the container only or to all its descendants (..).
+ */
+class Segment {
+    static final int NAME = 1;
+    static final int WILDCARD = 2;
+    static final int INDEX = 3;
+    static final int SLICE = 4;
+
+    final int kind;
+    final boolean descendant;
+    final String name;
+    final int index;
+    // null for an omitted slice bound
+    final Integer start;
+    final Integer end;
+    final int step;
+
+    private Segment(int kind, boolean descendant, String name, int index, Integer start, Integer end, int step) {
+        this.kind = kind;
+        this.descendant = descendant;
+        this.name = name;
+        this.index = index;
+        this.start = start;
+        this.end = end;
+        this.step = step;
+    }
+
+    static Segment name(String name, boolean descendant) {
+        return new Segment(NAME, descendant, name, 0, null, null, 1);
+    }
+
+    static Segment wildcard(boolean descendant) {
+        return new Segment(WILDCARD, descendant, null, 0, null, null, 1);
+    }
+
+    static Segment index(int index, boolean descendant) {
+        return new Segment(INDEX, descendant, null, index, null, null, 1);
+    }
+
+    static Segment slice(Integer start, Integer end, int step, boolean descendant) {
+        return new Segment(SLICE, descendant, null, 0, start, end, step);
+    }
+
+    boolean matchesName(String key) {
+        return kind == WILDCARD || (kind == NAME && name.equals(key));
+    }
+
+    /**
+     * Negative indexes, negative slice bounds and negative steps count from the end,
+     *      so the array length must be known before any element can be matched.
+     * @return
+     */
+    boolean needsLength() {
+        if (kind == INDEX) return index < 0;
+        if (kind == SLICE) {
+            return step < 0 || (start != null && start < 0) || (end != null && end < 0);
+        }
+        return false;
+    }
+
+    /**
+     * @param i index of the element
+     * @param length length of the array, Integer.MAX_VALUE if unknown and not needsLength()
+     * @return
+     */
+    boolean matchesIndex(int i, int length) {
+        switch (kind) {
+            case WILDCARD:
+                return true;
+            case INDEX:
+                return i == (index >= 0 ? index : length + index);
+            case SLICE:
+                return matchesSlice(i, length);
+            default:
+                return false;
+        }
+    }
+
+    // bounds are normalized and clamped as in RFC 9535
+    private boolean matchesSlice(int i, int length) {
+        if (step > 0) {
+            int lower = start == null ? 0 : clamp(normalize(start, length), 0, length);
+            int upper = end == null ? length : clamp(normalize(end, length), 0, length);
+            return lower <= i && i < upper && (i - lower) % step == 0;
+        }
+        if (step < 0) {
+            int upper = start == null ? length - 1 : clamp(normalize(start, length), -1, length - 1);
+            int lower = end == null ? -1 : clamp(normalize(end, length), -1, length - 1);
+            return lower < i && i <= upper && (upper - i) % -step == 0;
+        }
+        return false;
+    }
+
+    private static int normalize(int bound, int length) {
+        return bound >= 0 ? bound : length + bound;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
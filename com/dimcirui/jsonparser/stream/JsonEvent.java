@@ -0,0 +1,19 @@
+package com.dimcirui.jsonparser.stream;
+
+/**
+ * Events reported by JsonReader while walking through a document.
+ */
+public enum JsonEvent {
+    START_OBJECT,   // '{'
+    END_OBJECT,     // '}'
+    START_ARRAY,    // '['
+    END_ARRAY,      // ']'
+    KEY_NAME,       // key of a key-value pair, see getString()
+    VALUE_STRING,   // see getString()
+    VALUE_NUMBER,   // see getLong() and getDouble()
+    VALUE_TRUE,     // 'true'
+    VALUE_FALSE,    // 'false'
+    VALUE_NULL,     // 'null'
+    END_DOCUMENT,   // end of a document
+    NEED_MORE_INPUT // JsonPushParser only, the next token is not complete yet
+}
@@ -0,0 +1,103 @@
+package com.dimcirui.jsonparser.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.lexer.PushLexer;
+import com.dimcirui.jsonparser.lexer.SymbolTable;
+
+/**
+ * Push-based reader for non-blocking I/O: the caller feeds UTF-8 chunks as they arrive
+ *      and pulls events until NEED_MORE_INPUT, nothing ever blocks.
+ * Chunks may split a token anywhere, even inside a multi-byte char.
+ * e.g. on an event loop thread:
+ *      parser.feed(chunk);
+ *      while ((event = parser.nextEvent()) != JsonEvent.NEED_MORE_INPUT) {...}
+ * and parser.endOfInput() once the channel is closed.
+ *
+ * The grammar is the one of JsonReader, over a PushLexer.
+ * Not thread-safe, use one parser per connection.
+ */
+public class JsonPushParser {
+    private final PushLexer lexer;
+    private final JsonReader reader;
+
+    public JsonPushParser() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * @param symbolTable shared with other parsers, so keys are canonical across connections
+     */
+    public JsonPushParser(SymbolTable symbolTable) {
+        this.lexer = new PushLexer(symbolTable);
+        this.reader = new JsonReader(lexer);
+    }
+
+    /**
+     * Add the bytes between position and limit of the chunk, see PushLexer.feed.
+     * @param chunk
+     */
+    public void feed(ByteBuffer chunk) {
+        lexer.feed(chunk);
+    }
+
+    public void feed(byte[] bytes, int offset, int length) {
+        lexer.feed(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * No more chunks will follow.
+     */
+    public void endOfInput() {
+        lexer.endOfInput();
+    }
+
+    /**
+     * move to the next event, if the input is there.
+     * @return the new current event, NEED_MORE_INPUT until more is fed
+     * @throws JsonParseException If the document is not well-formed.
+     */
+    public JsonEvent nextEvent() {
+        try {
+            return reader.nextEvent();
+        } catch (IOException e) {
+            // a PushLexer does no I/O
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public JsonEvent currentEvent() {
+        return reader.currentEvent();
+    }
+
+    /**
+     * see JsonReader.getString
+     * @return
+     */
+    public String getString() {
+        return reader.getString();
+    }
+
+    public long getLong() {
+        return reader.getLong();
+    }
+
+    public double getDouble() {
+        return reader.getDouble();
+    }
+
+    public Number getNumber() {
+        return reader.getNumber();
+    }
+
+    /**
+     * number of containers that are currently open.
+     * @return
+     */
+    public int getDepth() {
+        return reader.getDepth();
+    }
+}
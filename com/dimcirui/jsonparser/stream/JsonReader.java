@@ -0,0 +1,342 @@
+package com.dimcirui.jsonparser.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.lexer.Token;
+import com.dimcirui.jsonparser.lexer.TokenStream;
+import com.dimcirui.jsonparser.lexer.TokenType;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+/**
+ * Pull-based reader: walks a document event by event without building a tree.
+ * Only one token and the stack of open containers are kept in memory,
+ *      so memory use depends on the nesting depth, not on the document size.
+ * e.g.
+ *      while ((event = reader.nextEvent()) != JsonEvent.END_DOCUMENT) {...}
+ */
+public class JsonReader implements Closeable {
+    private static final int BEGIN_OBJECT_TOKEN = 1;
+    private static final int END_OBJECT_TOKEN = 2;
+    private static final int BEGIN_ARRAY_TOKEN = 4;
+    private static final int END_ARRAY_TOKEN = 8;
+    private static final int NULL_TOKEN = 16;
+    private static final int NUMBER_TOKEN = 32;
+    private static final int STRING_TOKEN = 64;
+    private static final int BOOLEAN_TOKEN = 128;
+    private static final int SEP_COLON_TOKEN = 256;
+    private static final int SEP_COMMA_TOKEN = 512;
+    private static final int END_DOCUMENT_TOKEN = 1024;
+
+    private static final int VALUE_TOKEN = BEGIN_OBJECT_TOKEN | BEGIN_ARRAY_TOKEN |
+                                           NULL_TOKEN | NUMBER_TOKEN |
+                                           STRING_TOKEN | BOOLEAN_TOKEN;
+
+    private TokenStream tokens;
+    private Reader reader;
+
+    // open containers, true for an object and false for an array
+    private boolean[] stack = new boolean[16];
+    private int depth = 0;
+    private int maxDepth = 0;
+
+    private int expectedToken = VALUE_TOKEN;
+    private boolean expectKey = false;
+
+    private JsonEvent event;
+    private String value;
+    private Token number;
+
+    /**
+     * Read from a Reader, numbers keep their text for getString.
+     * @param reader
+     */
+    public JsonReader(Reader reader) {
+        this(textLexer().stream(new CharReader(reader)));
+        this.reader = reader;
+    }
+
+    public JsonReader(TokenStream tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * move to the next event.
+     * @return the new current event
+     * @throws IOException
+     * @throws JsonParseException If the document is not well-formed.
+     */
+    public JsonEvent nextEvent() throws IOException {
+        if (event == JsonEvent.END_DOCUMENT) return event;
+        try {
+            return event = readEvent();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private JsonEvent readEvent() {
+        while (true) {
+            Token token = tokens.next();
+            // a PushLexer waiting for input, nothing is consumed
+            if (token == null) return JsonEvent.NEED_MORE_INPUT;
+            TokenType tokenType = token.getTokenType();
+            checkExpectToken(tokenType);
+
+            switch (tokenType) {
+                case BEGIN_OBJECT:
+                    push(true);
+                    expectedToken = END_OBJECT_TOKEN | STRING_TOKEN;
+                    expectKey = true;
+                    return JsonEvent.START_OBJECT;
+                case END_OBJECT:
+                    depth--;
+                    endValue();
+                    return JsonEvent.END_OBJECT;
+                case BEGIN_ARRAY:
+                    push(false);
+                    expectedToken = VALUE_TOKEN | END_ARRAY_TOKEN;
+                    return JsonEvent.START_ARRAY;
+                case END_ARRAY:
+                    depth--;
+                    endValue();
+                    return JsonEvent.END_ARRAY;
+                case STRING:
+                    value = token.getValue();
+                    if (expectKey) {
+                        expectKey = false;
+                        expectedToken = SEP_COLON_TOKEN;
+                        return JsonEvent.KEY_NAME;
+                    }
+                    endValue();
+                    return JsonEvent.VALUE_STRING;
+                case NUMBER:
+                    number = token;
+                    endValue();
+                    return JsonEvent.VALUE_NUMBER;
+                case BOOLEAN:
+                    endValue();
+                    return Boolean.parseBoolean(token.getValue()) ? JsonEvent.VALUE_TRUE : JsonEvent.VALUE_FALSE;
+                case NULL:
+                    endValue();
+                    return JsonEvent.VALUE_NULL;
+                case SEP_COLON:
+                    expectedToken = VALUE_TOKEN;
+                    break;
+                case SEP_COMMA:
+                    if (stack[depth - 1]) {
+                        expectedToken = STRING_TOKEN;
+                        expectKey = true;
+                    }
+                    else expectedToken = VALUE_TOKEN;
+                    break;
+                case END_DOCUMENT:
+                    return JsonEvent.END_DOCUMENT;
+                default:
+                    throw new JsonParseException("Unexpected Token");
+            }
+        }
+    }
+
+    /**
+     * skip the value that starts at the current event.
+     * On START_OBJECT or START_ARRAY, move to the matching END_OBJECT or END_ARRAY.
+     * On KEY_NAME, skip the value that belongs to the key.
+     * On a scalar value, do nothing.
+     * If the token stream supports it, the container is skipped raw (TokenStream.skipContainer),
+     *      only the type of its closing bracket is checked.
+     * @throws IOException
+     * @throws IllegalStateException If the input ends inside the value, e.g. a PushLexer that has not been fed all of it.
+     */
+    public void skipValue() throws IOException {
+        if (event == JsonEvent.KEY_NAME) nextInValue();
+        if (event != JsonEvent.START_OBJECT && event != JsonEvent.START_ARRAY) return;
+
+        Token end;
+        try {
+            end = tokens.skipContainer();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (end != null) {
+            boolean isObject = stack[depth - 1];
+            if ((end.getTokenType() == TokenType.END_OBJECT) != isObject) {
+                throw new JsonParseException("Parse error, invalid Token: " + end.getTokenType());
+            }
+            depth--;
+            endValue();
+            event = isObject ? JsonEvent.END_OBJECT : JsonEvent.END_ARRAY;
+            return;
+        }
+
+        int target = depth - 1;
+        while (depth > target) {
+            nextInValue();
+        }
+    }
+
+    // a value is read in one go, a PushLexer must already have all of it
+    private JsonEvent nextInValue() throws IOException {
+        if (nextEvent() == JsonEvent.NEED_MORE_INPUT) {
+            throw new IllegalStateException("Incomplete input, the rest of the value has not been fed yet");
+        }
+        return event;
+    }
+
+    /**
+     * read the value that starts at the current event, like skipValue but keeping it.
+     * Afterwards the current event is the last event of the value.
+     * @return JsonObject, JsonArray, String, Number, Boolean or null
+     * @throws IOException
+     * @throws IllegalStateException If the input ends inside the value, e.g. a PushLexer that has not been fed all of it.
+     */
+    public Object readValue() throws IOException {
+        switch (event) {
+            case KEY_NAME:
+                nextInValue();
+                return readValue();
+            case START_OBJECT:
+                JsonObject jsonObject = new JsonObject();
+                while (nextInValue() == JsonEvent.KEY_NAME) {
+                    String key = value;
+                    nextInValue();
+                    jsonObject.put(key, readValue());
+                }
+                return jsonObject;
+            case START_ARRAY:
+                JsonArray jsonArray = new JsonArray();
+                while (nextInValue() != JsonEvent.END_ARRAY) {
+                    if (event != JsonEvent.VALUE_NUMBER) jsonArray.add(readValue());
+                    else if (number.isDouble()) jsonArray.addDouble(number.getDoubleValue());
+                    else if (number.isBigInteger()) jsonArray.add(number.getNumber());
+                    else jsonArray.addLong(number.getLongValue());
+                }
+                return jsonArray;
+            case VALUE_STRING:
+                return value;
+            case VALUE_NUMBER:
+                return number.getNumber();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonTypeException("Current event " + event + " does not start a value");
+        }
+    }
+
+    public JsonEvent currentEvent() {
+        return event;
+    }
+
+    private static Lexer textLexer() {
+        Lexer lexer = new Lexer();
+        lexer.keepNumberText(true);
+        return lexer;
+    }
+
+    /**
+     * text of the current KEY_NAME, VALUE_STRING or VALUE_NUMBER.
+     * A number is returned as written if its lexer keeps number text (see Lexer.keepNumberText),
+     *      as JsonReader(Reader) does, otherwise formatted by Long.toString or Double.toString, e.g. 1e2 as 100.0.
+     * @return
+     */
+    public String getString() {
+        if (event == JsonEvent.VALUE_NUMBER) return number.getValue();
+        if (event != JsonEvent.KEY_NAME && event != JsonEvent.VALUE_STRING) {
+            throw new JsonTypeException("Current event " + event + " has no string value");
+        }
+        return value;
+    }
+
+    public long getLong() {
+        checkNumber();
+        return number.getLongValue();
+    }
+
+    public double getDouble() {
+        checkNumber();
+        return number.getDoubleValue();
+    }
+
+    /**
+     * check if the current number has a fraction or an exponent.
+     * @return
+     */
+    public boolean isDouble() {
+        checkNumber();
+        return number.isDouble();
+    }
+
+    /**
+     * the current number as the parser stores it: Integer, Long, BigInteger or Double.
+     * @return
+     */
+    public Number getNumber() {
+        checkNumber();
+        return number.getNumber();
+    }
+
+    /**
+     * number of containers that are currently open.
+     * @return
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * deepest nesting read so far, the inside of a container skipped raw by skipValue is not seen.
+     * @return
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) reader.close();
+    }
+
+    private void checkNumber() {
+        if (event != JsonEvent.VALUE_NUMBER) {
+            throw new JsonTypeException("Current event " + event + " is not a number");
+        }
+    }
+
+    private void push(boolean isObject) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = isObject;
+        if (depth > maxDepth) maxDepth = depth;
+    }
+
+    // a value is finished, what can follow depends on the enclosing container
+    private void endValue() {
+        if (depth == 0) {
+            expectedToken = END_DOCUMENT_TOKEN;
+        }
+        else if (stack[depth - 1]) {
+            expectedToken = SEP_COMMA_TOKEN | END_OBJECT_TOKEN;
+        }
+        else {
+            expectedToken = SEP_COMMA_TOKEN | END_ARRAY_TOKEN;
+        }
+    }
+
+    private void checkExpectToken(TokenType tokenType) {
+        if ((tokenType.getTokenCode() & expectedToken) == 0) {
+            throw new JsonParseException("Parse error, invalid Token: " + tokenType);
+        }
+    }
+}
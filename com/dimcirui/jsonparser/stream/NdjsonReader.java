@@ -0,0 +1,301 @@
+package com.dimcirui.jsonparser.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.SymbolTable;
+import com.dimcirui.jsonparser.parser.Parser;
+
+/**
+ * Parallel reader for newline-delimited JSON (NDJSON / JSON Lines).
+ * The input is cut into line-aligned chunks of UTF-8 bytes,
+ *      every chunk is parsed by a task on a fork-join pool.
+ * Every line is one value of any type, e.g. 42 or "x" are records too.
+ * Each task has its own ByteLexer and Parser, all of them share one SymbolTable for the keys.
+ *
+ * Chunks are read on the consuming thread, at most 2 chunks per worker are in flight,
+ *      so memory stays bounded however large the input is.
+ * e.g.
+ *      try (Stream<Object> records = new NdjsonReader().read(path, true)) {...}
+ */
+public class NdjsonReader {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final SymbolTable symbolTable = new SymbolTable();
+
+    public NdjsonReader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public NdjsonReader(ForkJoinPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool
+     * @param chunkSize bytes read per chunk, a longer line makes its chunk grow
+     */
+    public NdjsonReader(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parse every non-blank line of a file.
+     * The file is closed when the stream is closed.
+     * @param path
+     * @param ordered true to get the records in input order,
+     *                false to get each chunk as soon as it is parsed
+     * @return the value of each line: JsonObject, JsonArray, String, Number, Boolean or null
+     * @throws IOException
+     */
+    public Stream<Object> read(Path path, boolean ordered) throws IOException {
+        return read(Files.newInputStream(path), ordered);
+    }
+
+    /**
+     * Parse every non-blank line of a UTF-8 stream.
+     * IOExceptions while reading are rethrown as UncheckedIOException,
+     *      a malformed line throws JsonParseException from the stream, with the byte offset of the line.
+     * The input is closed when the stream is closed.
+     * @param in
+     * @param ordered true to get the records in input order,
+     *                false to get each chunk as soon as it is parsed
+     * @return the value of each line: JsonObject, JsonArray, String, Number, Boolean or null
+     */
+    public Stream<Object> read(InputStream in, boolean ordered) {
+        ChunkIterator iterator = ordered ? new OrderedIterator(in) : new UnorderedIterator(in);
+        // a line may be null
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+                .onClose(iterator::close);
+    }
+
+    // parse the lines of bytes[0, length), which start at offset of the input, runs on a worker thread
+    private List<Object> parseChunk(byte[] bytes, int length, long offset) {
+        ByteLexer byteLexer = new ByteLexer(symbolTable);
+        Parser parser = new Parser();
+        List<Object> records = new ArrayList<>();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && bytes[end] != '\n') end++;
+            if (!isBlank(bytes, start, end)) {
+                try {
+                    records.add(parser.parseValue(byteLexer.stream(ByteBuffer.wrap(bytes, start, end - start))));
+                } catch (JsonParseException e) {
+                    throw new JsonParseException("Malformed line at byte offset " + (offset + start) + ": " + e.getMessage(), e);
+                }
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads chunks, keeps the pool busy and hands out the records of finished chunks.
+     */
+    private abstract class ChunkIterator implements Iterator<Object> {
+        private final InputStream in;
+        // bytes after the last newline of the previous chunk
+        private byte[] rest = new byte[0];
+        private int restLength = 0;
+        private boolean eof = false;
+        // offset in the input of the next chunk
+        private long offset = 0;
+
+        private final int window = Math.max(2, pool.getParallelism() * 2);
+        protected int inFlight = 0;
+        private Iterator<Object> current = Collections.emptyIterator();
+
+        ChunkIterator(InputStream in) {
+            this.in = in;
+        }
+
+        abstract void submit(byte[] bytes, int length, long offset);
+
+        abstract Future<List<Object>> nextDone();
+
+        abstract void cancelAll();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                if (inFlight == 0) return false;
+                current = join(nextDone()).iterator();
+                inFlight--;
+            }
+            return true;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+
+        void close() {
+            cancelAll();
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void fill() {
+            try {
+                while (inFlight < window && !eof) {
+                    readChunk();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // read up to the last newline of at least chunkSize bytes, and submit it
+        private void readChunk() throws IOException {
+            byte[] bytes = Arrays.copyOf(rest, Math.max(chunkSize, restLength * 2));
+            int length = restLength;
+            int searched = restLength;
+            int lastNewline = -1;
+            while (true) {
+                if (length == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                int n = in.read(bytes, length, bytes.length - length);
+                if (n < 0) {
+                    eof = true;
+                    break;
+                }
+                length += n;
+                for (int i = length - 1; i >= searched; i--) {
+                    if (bytes[i] == '\n') {
+                        lastNewline = i;
+                        break;
+                    }
+                }
+                searched = length;
+                if (lastNewline >= 0 && length >= chunkSize) break;
+            }
+
+            int end = eof ? length : lastNewline + 1;
+            restLength = length - end;
+            rest = Arrays.copyOfRange(bytes, end, length);
+            if (end > 0) {
+                submit(bytes, end, offset);
+                offset += end;
+                inFlight++;
+            }
+        }
+
+        private List<Object> join(Future<List<Object>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new CancellationException("Interrupted while waiting for a chunk");
+            } catch (ExecutionException e) {
+                cancelAll();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    // chunks are joined in the order they were submitted
+    private class OrderedIterator extends ChunkIterator {
+        private final ArrayDeque<Future<List<Object>>> futures = new ArrayDeque<>();
+
+        OrderedIterator(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        void submit(byte[] bytes, int length, long offset) {
+            futures.add(pool.submit(() -> parseChunk(bytes, length, offset)));
+        }
+
+        @Override
+        Future<List<Object>> nextDone() {
+            return futures.poll();
+        }
+
+        @Override
+        void cancelAll() {
+            for (Future<List<Object>> future : futures) future.cancel(false);
+            futures.clear();
+            inFlight = 0;
+        }
+    }
+
+    // chunks are joined in the order they finish
+    private class UnorderedIterator extends ChunkIterator {
+        private final ExecutorCompletionService<List<Object>> completion = new ExecutorCompletionService<>(pool);
+        private final List<Future<List<Object>>> futures = new ArrayList<>();
+
+        UnorderedIterator(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        void submit(byte[] bytes, int length, long offset) {
+            futures.add(completion.submit(() -> parseChunk(bytes, length, offset)));
+        }
+
+        @Override
+        Future<List<Object>> nextDone() {
+            try {
+                Future<List<Object>> future = completion.take();
+                futures.remove(future);
+                return future;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new CancellationException("Interrupted while waiting for a chunk");
+            }
+        }
+
+        @Override
+        void cancelAll() {
+            for (Future<List<Object>> future : futures) future.cancel(false);
+            futures.clear();
+            inFlight = 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.dimcirui.jsonparser.tape;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * A view of an array on a tape, with the same accessors as JsonArray.
+ * The entry of each element is found on the first indexed access;
+ *      iterating does not need that index.
+ */
+public class TapeArray implements Iterable<Object> {
+    private final TapeDocument document;
+    private final int index;
+    // tape index of every element, built on the first get(int)
+    private int[] elements;
+
+    TapeArray(TapeDocument document, int index) {
+        this.document = document;
+        this.index = index;
+    }
+
+    public Object get(int i) {
+        return document.value(element(i));
+    }
+
+    public int size() {
+        return document.starts[index];
+    }
+
+    public TapeObject getTapeObject(int i) {
+        return getType(i, TapeObject.class);
+    }
+
+    public TapeArray getTapeArray(int i) {
+        return getType(i, TapeArray.class);
+    }
+
+    private int element(int i) {
+        if (i < 0 || i >= size()) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size());
+        if (elements == null) {
+            int[] found = new int[size()];
+            int entry = index + 1;
+            for (int j = 0; j < found.length; j++) {
+                found[j] = entry;
+                entry = document.next(entry);
+            }
+            elements = found;
+        }
+        return elements[i];
+    }
+
+    private <T> T getType(int i, Class<T> type) {
+        Object obj = get(i);
+        if (!type.isInstance(obj)) throw new JsonTypeException("Element at index " + i + " is not of type " + type.getSimpleName());
+
+        return type.cast(obj);
+    }
+
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int entry = index + 1;
+            private final int end = document.ends[index];
+
+            @Override
+            public boolean hasNext() {
+                return entry < end;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Object value = document.value(entry);
+                entry = document.next(entry);
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package com.dimcirui.jsonparser.tape;
+
+import java.util.Arrays;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.lexer.Escapes;
+import com.dimcirui.jsonparser.lexer.NumberBuilder;
+
+/**
+ * Scan a document once and write its values onto a tape.
+ * Validates the same grammar as Lexer and Parser,
+ *      but creates no tokens, strings or boxed numbers.
+ */
+class TapeBuilder {
+    private static final int END = -1;
+
+    private String source;
+    private int pos = 0;
+
+    private byte[] tags = new byte[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int size = 0;
+
+    private NumberBuilder numberBuilder = new NumberBuilder();
+
+    TapeBuilder(String source) {
+        this.source = source;
+    }
+
+    TapeDocument build() {
+        int ch = nextNonWhiteSpace();
+        if (ch == '{') parseObject();
+        else if (ch == '[') parseArray();
+        else throw new JsonParseException("Parse error, invalid token");
+
+        if (nextNonWhiteSpace() != END) {
+            throw new JsonParseException("Unexpected character after the end of the document");
+        }
+        return new TapeDocument(source, tags, starts, ends, size);
+    }
+
+    private int add(byte tag, int start, int end) {
+        if (size == tags.length) {
+            int capacity = size * 2;
+            tags = Arrays.copyOf(tags, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        tags[size] = tag;
+        starts[size] = start;
+        ends[size] = end;
+        return size++;
+    }
+
+    private int next() {
+        if (pos >= source.length()) return END;
+        return source.charAt(pos++);
+    }
+
+    private int peek() {
+        if (pos >= source.length()) return END;
+        return source.charAt(pos);
+    }
+
+    private int nextNonWhiteSpace() {
+        while (true) {
+            int ch = next();
+            if (ch != ' ' && ch != '\t' && ch != '\n' && ch != '\r') return ch;
+        }
+    }
+
+    private void parseValue(int ch) {
+        switch (ch) {
+            case '{': parseObject(); return;
+            case '[': parseArray(); return;
+            case '"': parseString(); return;
+            case 't': expect("rue", "true"); add(TapeDocument.TRUE, 0, 0); return;
+            case 'f': expect("alse", "false"); add(TapeDocument.FALSE, 0, 0); return;
+            case 'n': expect("ull", "null"); add(TapeDocument.NULL, 0, 0); return;
+        }
+        if (ch == '-' || isDigit(ch)) {
+            parseNumber();
+            return;
+        }
+        if (ch == END) throw new JsonParseException("Unexpected end of document");
+        throw new JsonParseException("Illegal character: " + (char) ch);
+    }
+
+    // '{' has been read
+    private void parseObject() {
+        int index = add(TapeDocument.OBJECT, 0, 0);
+        int count = 0;
+        int ch = nextNonWhiteSpace();
+        if (ch != '}') {
+            while (true) {
+                if (ch != '"') throw new JsonParseException("Parse error, a key must be a string");
+                parseString();
+                if (nextNonWhiteSpace() != ':') throw new JsonParseException("Parse error, expected ':'");
+                parseValue(nextNonWhiteSpace());
+                count++;
+
+                ch = nextNonWhiteSpace();
+                if (ch == '}') break;
+                if (ch != ',') throw new JsonParseException("Parse error, expected ',' or '}'");
+                ch = nextNonWhiteSpace();
+            }
+        }
+        starts[index] = count;
+        ends[index] = size;
+    }
+
+    // '[' has been read
+    private void parseArray() {
+        int index = add(TapeDocument.ARRAY, 0, 0);
+        int count = 0;
+        int ch = nextNonWhiteSpace();
+        if (ch != ']') {
+            while (true) {
+                parseValue(ch);
+                count++;
+
+                ch = nextNonWhiteSpace();
+                if (ch == ']') break;
+                if (ch != ',') throw new JsonParseException("Parse error, expected ',' or ']'");
+                ch = nextNonWhiteSpace();
+            }
+        }
+        starts[index] = count;
+        ends[index] = size;
+    }
+
+    // '"' has been read, escape sequences are validated and decoded when the string is read
+    private void parseString() {
+        int start = pos;
+        byte tag = TapeDocument.STRING;
+        while (true) {
+            int ch = next();
+            if (ch == '"') break;
+            if (ch == END) throw new JsonParseException("Unterminated string");
+            if (ch == '\r' || ch == '\n') throw new JsonParseException("Invalid character");
+            if (ch == '\\') {
+                tag = TapeDocument.ESCAPED_STRING;
+                ch = next();
+                if (ch == 'u') {
+                    for (int i = 0; i < 4; i++) {
+                        if (Escapes.hexValue(next()) < 0) throw new JsonParseException("Invalid character");
+                    }
+                }
+                else if (Escapes.unescape(ch) < 0) throw new JsonParseException("Invalid character");
+            }
+        }
+        add(tag, start, pos - 1);
+    }
+
+    // the grammar is checked now, the value is only converted when it is read
+    private void parseNumber() {
+        int start = pos - 1;
+        pos = numberBuilder.parse(source, start);
+        add(TapeDocument.NUMBER, start, pos);
+    }
+
+    private void expect(String rest, String literal) {
+        for (int i = 0; i < rest.length(); i++) {
+            if (next() != rest.charAt(i)) {
+                throw new JsonParseException("Invalid JSON string for " + literal + " value");
+            }
+        }
+    }
+
+    private boolean isDigit(int ch) {
+        return ('0' <= ch && ch <= '9');
+    }
+}
@@ -0,0 +1,145 @@
+package com.dimcirui.jsonparser.tape;
+
+import java.util.Arrays;
+
+import com.dimcirui.jsonparser.lexer.Escapes;
+import com.dimcirui.jsonparser.lexer.NumberBuilder;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+/**
+ * A parsed document stored in flat primitive arrays instead of a tree.
+ * Every value is one entry on the tape, in document order:
+ *      tags[i]    type of the entry
+ *      starts[i]  string, number: offset of the first char in the source
+ *                 object, array: number of children
+ *      ends[i]    string: offset of the closing quote in the source
+ *                 number: offset after its last char
+ *                 object, array: index of the entry after the container
+ * An object's children are key and value entries, one after the other.
+ * Building the tape checks the whole document, but only records where each value is:
+ *      strings are only created, and numbers only converted, when they are read.
+ */
+public class TapeDocument {
+    static final byte OBJECT = 1;
+    static final byte ARRAY = 2;
+    static final byte STRING = 3;
+    static final byte NUMBER = 4;
+    static final byte TRUE = 5;
+    static final byte FALSE = 6;
+    static final byte NULL = 7;
+    // a string that contains escape sequences
+    static final byte ESCAPED_STRING = 8;
+
+    final String source;
+    final byte[] tags;
+    final int[] starts;
+    final int[] ends;
+
+    TapeDocument(String source, byte[] tags, int[] starts, int[] ends, int size) {
+        this.source = source;
+        this.tags = Arrays.copyOf(tags, size);
+        this.starts = Arrays.copyOf(starts, size);
+        this.ends = Arrays.copyOf(ends, size);
+    }
+
+    /**
+     * Parse a document into a tape.
+     * @param json
+     * @return TapeObject or TapeArray
+     * @throws com.dimcirui.jsonparser.exception.JsonParseException If the document is not well-formed.
+     */
+    public static Object parse(String json) {
+        return new TapeBuilder(json).build().root();
+    }
+
+    /**
+     * Parse a document into a tape and return a lazy JsonObject/JsonArray on top of it.
+     * The whole document is checked up front, but the tape only records positions.
+     * Only the keys of the root are decoded then; every value,
+     *      including nested containers, strings and numbers, is decoded the first time it is read.
+     * @param json
+     * @return JsonObject or JsonArray
+     */
+    public static Object parseLazy(String json) {
+        return new TapeBuilder(json).build().materialize(0);
+    }
+
+    public Object root() {
+        return value(0);
+    }
+
+    /**
+     * the entry at index as a JsonObject/JsonArray whose values are resolved on first read.
+     * @param index
+     * @return
+     */
+    Object materialize(int index) {
+        byte tag = tags[index];
+        if (tag == OBJECT) {
+            JsonObject jsonObject = new JsonObject();
+            for (int i = index + 1; i < ends[index]; i = next(i + 1)) {
+                jsonObject.put((String) value(i), lazy(i + 1));
+            }
+            return jsonObject;
+        }
+        if (tag == ARRAY) {
+            JsonArray jsonArray = new JsonArray();
+            for (int i = index + 1; i < ends[index]; i = next(i)) {
+                jsonArray.add(lazy(i));
+            }
+            return jsonArray;
+        }
+        return value(index);
+    }
+
+    // literals are cheaper to decode than to defer
+    private Object lazy(int index) {
+        byte tag = tags[index];
+        if (tag == TRUE || tag == FALSE || tag == NULL) return value(index);
+        return new TapeLazyValue(this, index);
+    }
+
+    /**
+     * number of entries on the tape.
+     * @return
+     */
+    public int size() {
+        return tags.length;
+    }
+
+    /**
+     * decode the entry at index, the same types as in JsonObject/JsonArray.
+     * @param index
+     * @return
+     */
+    Object value(int index) {
+        switch (tags[index]) {
+            case OBJECT: return new TapeObject(this, index);
+            case ARRAY: return new TapeArray(this, index);
+            case STRING: return source.substring(starts[index], ends[index]);
+            case ESCAPED_STRING: return Escapes.unescape(source, starts[index], ends[index]);
+            case NUMBER:
+                NumberBuilder numberBuilder = new NumberBuilder();
+                numberBuilder.parse(source, starts[index]);
+                return numberBuilder.numberValue();
+            case TRUE: return Boolean.TRUE;
+            case FALSE: return Boolean.FALSE;
+            default: return null;
+        }
+    }
+
+    // index of the entry after the value at index
+    int next(int index) {
+        byte tag = tags[index];
+        if (tag == OBJECT || tag == ARRAY) return ends[index];
+        return index + 1;
+    }
+
+    // compare a key entry with a String, only keys with escape sequences are decoded
+    boolean keyEquals(int index, String key) {
+        if (tags[index] == ESCAPED_STRING) return value(index).equals(key);
+        int length = ends[index] - starts[index];
+        return length == key.length() && source.regionMatches(starts[index], key, 0, length);
+    }
+}
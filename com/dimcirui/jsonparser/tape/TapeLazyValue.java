@@ -0,0 +1,21 @@
+package com.dimcirui.jsonparser.tape;
+
+import com.dimcirui.jsonparser.model.LazyValue;
+
+/**
+ * A value of a lazy JsonObject/JsonArray that still lives on the tape.
+ */
+class TapeLazyValue extends LazyValue {
+    private final TapeDocument document;
+    private final int index;
+
+    TapeLazyValue(TapeDocument document, int index) {
+        this.document = document;
+        this.index = index;
+    }
+
+    @Override
+    public Object resolve() {
+        return document.materialize(index);
+    }
+}
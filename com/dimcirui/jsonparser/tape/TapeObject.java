@@ -0,0 +1,74 @@
+package com.dimcirui.jsonparser.tape;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.dimcirui.jsonparser.exception.*;
+
+/**
+ * A view of an object on a tape, with the same accessors as JsonObject.
+ * Values are decoded on every call, nothing is cached in the view.
+ * Lookups scan the keys in document order; for duplicate keys the last one wins.
+ */
+public class TapeObject {
+    private final TapeDocument document;
+    private final int index;
+
+    TapeObject(TapeDocument document, int index) {
+        this.document = document;
+        this.index = index;
+    }
+
+    public Object get(String key) {
+        int valueIndex = find(key);
+        return valueIndex < 0 ? null : document.value(valueIndex);
+    }
+
+    public boolean containsKey(String key) {
+        return find(key) >= 0;
+    }
+
+    public int size() {
+        return document.starts[index];
+    }
+
+    public List<Map.Entry<String, Object>> getAllKeyValue() {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(size());
+        int end = document.ends[index];
+        for (int i = index + 1; i < end; i = document.next(i + 1)) {
+            String key = (String) document.value(i);
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(key, document.value(i + 1)));
+        }
+        return entries;
+    }
+
+    public TapeObject getTapeObject(String key) {
+        return getType(key, TapeObject.class);
+    }
+
+    public TapeArray getTapeArray(String key) {
+        return getType(key, TapeArray.class);
+    }
+
+    // index of the value entry for key, -1 if there is none
+    private int find(String key) {
+        int found = -1;
+        int end = document.ends[index];
+        for (int i = index + 1; i < end; i = document.next(i + 1)) {
+            if (document.keyEquals(i, key)) found = i + 1;
+        }
+        return found;
+    }
+
+    private <T> T getType(String key, Class<T> type) {
+        int valueIndex = find(key);
+        if (valueIndex < 0) throw new JsonTypeException("Invalid key:" + key);
+
+        Object obj = document.value(valueIndex);
+        if (!type.isInstance(obj)) throw new JsonTypeException("Value associated with key " + key + " is not of type " + type.getSimpleName());
+
+        return type.cast(obj);
+    }
+}
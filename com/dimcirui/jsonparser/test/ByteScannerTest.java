@@ -0,0 +1,90 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.lexer.ByteScanner;
+import com.dimcirui.jsonparser.model.JsonArray;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class ByteScannerTest {
+    // bytes that change the state of the scanner, plus filler
+    private static final byte[] ALPHABET = "\"\\{}[],: \t\r\nab1é".getBytes(StandardCharsets.UTF_8);
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        return bytes;
+    }
+
+    @Test
+    public void VectorMatchesScalarTest() throws Exception {
+        ByteScanner vector = ByteScanner.vector();
+        // nothing to compare without --add-modules jdk.incubator.vector
+        if (vector == null) return;
+        ByteScanner scalar = ByteScanner.scalar();
+
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            byte[] bytes = randomBytes(random, 1 + random.nextInt(300));
+            // an offset into the array, as in a ByteBuffer slice
+            int start = random.nextInt(Math.min(8, bytes.length));
+            int end = start + random.nextInt(bytes.length - start + 1);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+            long[] expected = new long[((end - start) + 63) >>> 6];
+            long[] actual = new long[expected.length];
+            assertEquals(scalar.index(buffer, start, end, expected), vector.index(buffer, start, end, actual));
+            assertArrayEquals(expected, actual);
+
+            for (int from = start; from <= end; from++) {
+                assertEquals(scalar.skipPlain(buffer, from, end), vector.skipPlain(buffer, from, end));
+                assertEquals(scalar.skipWhiteSpace(buffer, from, end), vector.skipWhiteSpace(buffer, from, end));
+                ByteScanner.SkipState expectedState = new ByteScanner.SkipState();
+                ByteScanner.SkipState actualState = new ByteScanner.SkipState();
+                assertEquals(scalar.skipContainer(buffer, from, end, expectedState), vector.skipContainer(buffer, from, end, actualState));
+            }
+        }
+    }
+
+    @Test
+    public void EscapeRunTest() throws Exception {
+        ByteScanner vector = ByteScanner.vector();
+        if (vector == null) return;
+        ByteScanner scalar = ByteScanner.scalar();
+
+        // runs of backslashes and quotes that cross the vector lanes
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append("{\"k\\\\\":[1, \"a\\\"b,c\\\\\\\"\" ,  \"é张三\" ]}\t\r\n      \\\"x\":");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        int length = buffer.limit();
+        for (int from = 0; from < length; from++) {
+            assertEquals(scalar.skipPlain(buffer, from, length), vector.skipPlain(buffer, from, length));
+            assertEquals(scalar.skipWhiteSpace(buffer, from, length), vector.skipWhiteSpace(buffer, from, length));
+            assertEquals(scalar.skipContainer(buffer, from, length, new ByteScanner.SkipState()),
+                    vector.skipContainer(buffer, from, length, new ByteScanner.SkipState()));
+        }
+        long[] expected = new long[(length + 63) >>> 6];
+        long[] actual = new long[expected.length];
+        assertEquals(scalar.index(buffer, 0, length, expected), vector.index(buffer, 0, length, actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void LongRunTest() throws Exception {
+        StringBuilder sb = new StringBuilder("[\"");
+        for (int i = 0; i < 1000; i++) sb.append((char) ('a' + i % 26));
+        sb.append("\\\"é\",                                                      1]");
+        JsonArray jsonArray = (JsonArray) new JSONParser().fromJSON(sb.toString().getBytes(StandardCharsets.UTF_8));
+        String value = (String) jsonArray.get(0);
+        assertEquals(1002, value.length());
+        assertTrue(value.endsWith("\"é"));
+        assertEquals(1, jsonArray.get(1));
+    }
+}
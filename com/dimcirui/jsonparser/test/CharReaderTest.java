@@ -0,0 +1,90 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.parser.Parser;
+
+public class CharReaderTest {
+
+    @Test
+    public void BackAcrossRefillTest() throws Exception {
+        CharReader charReader = new CharReader(new StringReader("abcde"), 2);
+        assertEquals('a', charReader.next());
+        assertEquals('b', charReader.next());
+        // refills the buffer
+        assertEquals('c', charReader.next());
+        assertEquals('c', charReader.peek());
+        charReader.back();
+        assertEquals('c', charReader.next());
+        assertEquals('d', charReader.next());
+        assertEquals('e', charReader.next());
+        assertFalse(charReader.hasMore());
+        charReader.back();
+        assertEquals('e', charReader.next());
+        assertEquals((char) -1, charReader.next());
+    }
+
+    @Test
+    public void ScanTest() throws Exception {
+        CharReader charReader = new CharReader(new StringReader("  \n\t12345x\"abc\\d"));
+        assertTrue(charReader.skipWhitespace());
+        int start = charReader.position();
+        assertEquals(start + 5, charReader.scanDigits());
+        assertEquals("12345", new String(charReader.buffer(), start, 5));
+        assertEquals('x', charReader.next());
+        assertEquals('"', charReader.next());
+        start = charReader.position();
+        int end = charReader.scanString();
+        assertEquals("abc", new String(charReader.buffer(), start, end - start));
+        assertEquals('\\', charReader.next());
+        assertEquals('d', charReader.next());
+        assertFalse(charReader.skipWhitespace());
+    }
+
+    @Test
+    public void SmallBufferTest() throws Exception {
+        // tokens, strings and numbers split across many refills
+        String json = "{\"name\": \"a long \\\"quoted\\\" string\\u00e9\", \"flags\": [true, false, null],"
+                + " \"n\": [12345678901, -0.25e-3, 0, 1E5]}";
+        for (int bufferSize = 2; bufferSize <= 8; bufferSize++) {
+            Reader reader = new StringReader(json);
+            JsonObject jsonObject = (JsonObject) new Parser().parse(
+                    new Lexer().tokenize(new CharReader(reader, bufferSize)));
+            assertEquals("a long \"quoted\" stringé", jsonObject.get("name"));
+            JsonArray flags = jsonObject.getJsonArray("flags");
+            assertEquals(Boolean.TRUE, flags.get(0));
+            assertEquals(Boolean.FALSE, flags.get(1));
+            assertNull(flags.get(2));
+            JsonArray n = jsonObject.getJsonArray("n");
+            assertEquals(12345678901L, n.get(0));
+            assertEquals(-0.25e-3, n.getDouble(1), 0);
+            assertEquals(1E5, n.getDouble(3), 0);
+        }
+    }
+
+    @Test
+    public void LargeStreamTest() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 50000; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("{\"on\": ").append(i % 2 == 0).append(", \"v\": ").append(i).append('}');
+        }
+        String json = sb.append(']').toString();
+        JSONParser jsonParser = new JSONParser();
+        JsonArray streamed = (JsonArray) jsonParser.fromJSON(new StringReader(json));
+        JsonArray parsed = (JsonArray) jsonParser.fromJSON(json);
+        assertEquals(50000, streamed.size());
+        assertEquals(50000, parsed.size());
+        assertEquals(Boolean.FALSE, streamed.getJsonObject(49999).get("on"));
+        assertEquals(49999, parsed.getJsonObject(49999).get("v"));
+    }
+}
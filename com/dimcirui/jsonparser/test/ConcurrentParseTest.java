@@ -0,0 +1,74 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentParseTest {
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 2000;
+
+    private static String document(int thread, int i) {
+        return "{\"thread\":" + thread + ",\"i\":" + i + ",\"name\":\"张三" + i + "\",\"tags\":[\"t" + thread + "\"," + i * 0.5 + "]}";
+    }
+
+    @Test
+    public void SharedParserTest() throws Exception {
+        // fewer pooled contexts than threads, so contexts are also created and dropped
+        JSONParser jsonParser = new JSONParser(4);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String json = document(thread, i);
+                    Object value;
+                    switch (i % 4) {
+                        case 0: value = jsonParser.fromJSON(json); break;
+                        case 1: value = jsonParser.fromJSON(new StringReader(json)); break;
+                        case 2: value = jsonParser.fromJSON(json.getBytes(StandardCharsets.UTF_8)); break;
+                        default:
+                            // a failed parse must leave its context reusable
+                            try {
+                                jsonParser.fromJSON("{\"broken\":");
+                                fail("expected JsonParseException");
+                            } catch (JsonParseException e) {
+                                // expected
+                            }
+                            value = jsonParser.fromJSON(json);
+                    }
+                    JsonObject jsonObject = (JsonObject) value;
+                    assertEquals(thread, jsonObject.get("thread"));
+                    assertEquals(i, jsonObject.get("i"));
+                    assertEquals("张三" + i, jsonObject.get("name"));
+                    JsonArray tags = jsonObject.getJsonArray("tags");
+                    assertEquals("t" + thread, tags.get(0));
+                    assertEquals(i * 0.5, tags.get(1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dimcirui.jsonparser.binding.DataBinder;
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonBindingException;
+import com.dimcirui.jsonparser.exception.JsonTypeException;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+public class DataBinderTest {
+    enum Level { JUNIOR, SENIOR }
+
+    record Employee(String name, int age, double salary, Level level, List<String> skills, long[] scores, Address address) {
+    }
+
+    record Address(String city, Integer zip) {
+    }
+
+    record Node(String id, List<Node> children) {
+    }
+
+    record Account(BigInteger id, BigDecimal balance, List<BigDecimal> history) {
+    }
+
+    static class Company {
+        private String name;
+        private Map<String, Employee> employees;
+        Set<Level> levels;
+        boolean listed;
+        Object extra;
+        transient String ignored;
+        private int setterCalls;
+
+        public void setName(String name) {
+            this.name = name;
+            setterCalls++;
+        }
+    }
+
+    static class NoDefaultConstructor {
+        NoDefaultConstructor(int x) {
+        }
+    }
+
+    private final JSONParser jsonParser = new JSONParser();
+
+    @Test
+    public void RecordTest() throws Exception {
+        String json = "{\"name\":\"张三\",\"age\":30,\"unknown\":{\"a\":[1,{\"b\":2}]},\"salary\":1.5e4," +
+                "\"level\":\"SENIOR\",\"skills\":[\"Java\",\"Python\"],\"scores\":[1,2,10000000000]," +
+                "\"address\":{\"city\":\"上海\",\"zip\":null}}";
+        Employee employee = jsonParser.fromJSON(json, Employee.class);
+        assertEquals("张三", employee.name());
+        assertEquals(30, employee.age());
+        assertEquals(15000.0, employee.salary(), 0);
+        assertEquals(Level.SENIOR, employee.level());
+        assertEquals(List.of("Java", "Python"), employee.skills());
+        assertArrayEquals(new long[]{1, 2, 10000000000L}, employee.scores());
+        assertEquals(new Address("上海", null), employee.address());
+
+        // the byte path binds the same, missing components keep their default
+        Employee partial = jsonParser.fromJSON("{\"name\":\"a\"}".getBytes(StandardCharsets.UTF_8), Employee.class);
+        assertEquals("a", partial.name());
+        assertEquals(0, partial.age());
+        assertNull(partial.skills());
+    }
+
+    @Test
+    public void PojoTest() throws Exception {
+        String json = "{\"name\":\"ACME\",\"listed\":true,\"levels\":[\"JUNIOR\",\"SENIOR\",\"JUNIOR\"],\"ignored\":\"x\"," +
+                "\"extra\":{\"k\":[1,2]},\"employees\":{\"e1\":{\"name\":\"Bob\",\"age\":41}}}";
+        Company company = jsonParser.fromJSON(json, Company.class);
+        assertEquals("ACME", company.name);
+        assertEquals(1, company.setterCalls);
+        assertTrue(company.listed);
+        assertEquals(Set.of(Level.JUNIOR, Level.SENIOR), company.levels);
+        assertEquals(41, company.employees.get("e1").age());
+        assertNull(company.ignored);
+        // untyped parts are read as a tree
+        assertEquals(2, ((JsonObject) company.extra).getJsonArray("k").get(1));
+    }
+
+    @Test
+    public void RecursiveTest() throws Exception {
+        Node root = jsonParser.fromJSON("{\"id\":\"a\",\"children\":[{\"id\":\"b\",\"children\":[]},{\"id\":\"c\"}]}", Node.class);
+        assertEquals(2, root.children().size());
+        assertEquals("c", root.children().get(1).id());
+        assertNull(root.children().get(1).children());
+    }
+
+    @Test
+    public void BigNumberTest() throws Exception {
+        String json = "{\"id\":-1234567890123456789012345,\"balance\":0.1000000000000000055511," +
+                "\"history\":[1.50,1e-30,12345678901234567890.123456789,7]}";
+        Account fromChars = jsonParser.fromJSON(json, Account.class);
+        Account fromBytes = jsonParser.fromJSON(json.getBytes(StandardCharsets.UTF_8), Account.class);
+        for (Account account : List.of(fromChars, fromBytes)) {
+            assertEquals(new BigInteger("-1234567890123456789012345"), account.id());
+            assertEquals(new BigDecimal("0.1000000000000000055511"), account.balance());
+            // the scale is kept as written
+            assertEquals(List.of(new BigDecimal("1.50"), new BigDecimal("1e-30"),
+                    new BigDecimal("12345678901234567890.123456789"), new BigDecimal("7")), account.history());
+        }
+        assertEquals(new BigInteger("99999999999999999999"), jsonParser.fromJSON("99999999999999999999", BigInteger.class));
+
+        assertTrue(DataBinder.needsNumberText(Account.class));
+        assertFalse(DataBinder.needsNumberText(Employee.class));
+        assertFalse(DataBinder.needsNumberText(Node.class));
+        try {
+            jsonParser.fromJSON("{\"id\":1.5}", Account.class);
+            fail("expected JsonTypeException");
+        } catch (JsonTypeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void ErrorTest() throws Exception {
+        String[] mismatched = {"{\"age\":\"30\"}", "{\"age\":1.5}", "{\"age\":10000000000}", "{\"scores\":[1234567890123456789012345]}", "{\"level\":\"CEO\"}", "{\"skills\":{}}"};
+        for (String json : mismatched) {
+            try {
+                jsonParser.fromJSON(json, Employee.class);
+                fail("expected JsonTypeException for " + json);
+            } catch (JsonTypeException e) {
+                // expected
+            }
+        }
+        try {
+            jsonParser.fromJSON("{}", NoDefaultConstructor.class);
+            fail("expected JsonBindingException");
+        } catch (JsonBindingException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.lexer.DecompressingSource;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+public class DecompressingSourceTest {
+    private final JSONParser jsonParser = new JSONParser();
+
+    private static String document() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"张三 ").append(i).append("\", \"ok\": ").append(i % 3 == 0).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void GzipTest() throws Exception {
+        String json = document();
+        byte[] compressed = gzip(json);
+        JsonArray expected = (JsonArray) jsonParser.fromJSON(json);
+
+        JsonArray fromStream = (JsonArray) jsonParser.fromGzip(new ByteArrayInputStream(compressed));
+        assertEquals(expected.size(), fromStream.size());
+        assertEquals(jsonParser.toJSON(expected), jsonParser.toJSON(fromStream));
+
+        Path path = Files.createTempFile("DecompressingSourceTest", ".json.gz");
+        try {
+            Files.write(path, compressed);
+            JsonArray fromFile = (JsonArray) jsonParser.fromGzip(path);
+            JsonObject last = fromFile.getJsonObject(19999);
+            assertEquals("张三 19999", last.get("name"));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void SmallRingTest() throws Exception {
+        // tokens and UTF-8 sequences split between many small buffers
+        String json = document();
+        DecompressingSource source = new DecompressingSource(
+                new GZIPInputStream(new ByteArrayInputStream(gzip(json))), 7, 2);
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON(source);
+        assertEquals(jsonParser.toJSON(jsonParser.fromJSON(json)), jsonParser.toJSON(jsonArray));
+        assertNull(source.next());
+    }
+
+    @Test
+    public void CorruptTest() throws Exception {
+        byte[] compressed = gzip(document());
+        // damage the deflate data after the header
+        for (int i = 100; i < 200; i++) compressed[i] ^= 0x5a;
+        try {
+            jsonParser.fromGzip(new ByteArrayInputStream(compressed));
+            fail("expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void CloseTest() throws Exception {
+        Thread[] worker = new Thread[1];
+        Executor executor = task -> {
+            worker[0] = new Thread(task);
+            worker[0].start();
+        };
+        byte[] compressed = gzip(document());
+        for (int i = 0; i < 100; i++) {
+            DecompressingSource source = new DecompressingSource(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed)), 64, 2, executor);
+            assertNotNull(source.next());
+            // the thread is reading or blocked on a full ring, either way it stops without an error
+            source.close();
+            worker[0].join(5000);
+            assertFalse(worker[0].isAlive());
+            while (source.next() != null) {
+                // drain what was already filled
+            }
+        }
+    }
+
+    @Test
+    public void CloseBlockedReadTest() throws Exception {
+        // a read that ignores interrupts, like one on a socket, and only ends when the stream is closed
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream blocking = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                boolean done = false;
+                while (!done) {
+                    try {
+                        done = closed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // ignored
+                    }
+                }
+                throw new IOException("Stream closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        Thread[] worker = new Thread[1];
+        Executor executor = task -> {
+            worker[0] = new Thread(task);
+            worker[0].start();
+        };
+        DecompressingSource source = new DecompressingSource(blocking, 64, 2, executor);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        source.close();
+        worker[0].join(5000);
+        assertFalse(worker[0].isAlive());
+    }
+
+    @Test
+    public void ExecutorTest() throws Exception {
+        String json = document();
+        byte[] compressed = gzip(json);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // the same thread decompresses one source after the other
+            for (int i = 0; i < 3; i++) {
+                try (DecompressingSource source = DecompressingSource.gzip(new ByteArrayInputStream(compressed), executor)) {
+                    assertEquals(20000, ((JsonArray) jsonParser.fromJSON(source)).size());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.cache.DocumentCache;
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+public class DocumentCacheTest {
+    private final JSONParser jsonParser = new JSONParser();
+
+    @Test
+    public void HitTest() throws Exception {
+        DocumentCache cache = new DocumentCache(jsonParser, 1 << 20);
+        String json = "{\"flags\": {\"dark\": true, \"beta\": [1, 2]}}";
+        JsonObject first = (JsonObject) cache.fromJSON(json);
+        // an equal String that is not the same instance
+        JsonObject second = (JsonObject) cache.fromJSON(new String(json));
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertTrue(cache.weightedSize() > json.length());
+
+        assertNotSame(first, cache.fromJSON("{\"flags\": {}}"));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weightedSize());
+    }
+
+    @Test
+    public void ReadOnlyTest() throws Exception {
+        DocumentCache cache = new DocumentCache(jsonParser, 1 << 20);
+        JsonObject jsonObject = (JsonObject) cache.fromJSON("{\"a\": {\"b\": [1, {\"c\": 2}]}}");
+        assertTrue(jsonObject.isFrozen());
+        JsonArray jsonArray = jsonObject.getJsonObject("a").getJsonArray("b");
+        try {
+            jsonObject.put("x", 1);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            jsonArray.add(3);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            jsonArray.getJsonObject(1).getAllKeyValue().get(0).setValue(3);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(2, jsonArray.getJsonObject(1).get("c"));
+    }
+
+    @Test
+    public void EvictionTest() throws Exception {
+        // room for a few dozen small documents
+        DocumentCache cache = new DocumentCache(jsonParser, 8 << 10);
+        String hot = "{\"hot\": [1, 2, 3]}";
+        for (int i = 0; i < 10; i++) cache.fromJSON(hot);
+        // a scan of documents seen once does not push out the frequently used one
+        for (int i = 0; i < 2000; i++) {
+            cache.fromJSON("{\"cold\": " + i + "}");
+            assertTrue(cache.weightedSize() <= 8 << 10);
+        }
+        assertTrue(cache.getEvictions() > 0);
+        long hits = cache.getHits();
+        cache.fromJSON(hot);
+        assertEquals(hits + 1, cache.getHits());
+    }
+}
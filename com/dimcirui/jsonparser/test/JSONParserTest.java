@@ -1,31 +1,214 @@
-package com.dimcirui.jsonparser.test;
-
-import org.junit.Test;
-
-import com.dimcirui.jsonparser.core.JSONParser;
-import com.dimcirui.jsonparser.model.JsonArray;
-import com.dimcirui.jsonparser.model.JsonObject;
-
-public class JSONParserTest {
-    @Test
-    public void JsonObjectTest() throws Exception {
-        String json = "{\"employees\":[{\"name\":\"张三\",\"age\":30,\"skills\":[\"Java\",\"Python\"]},{\"name\":\"李四\",\"age\":25,\"skills\":[\"JavaScript\",\"C#\"]},{\"name\":\"王五\",\"age\":35,\"skills\":[\"PHP\",\"SQL\"]}],\"departments\":[\"研发部\",\"市场部\",\"人力资源部\"],\"company\":{\"name\":\"示例科技有限公司\",\"foundedYear\":2010,\"location\":\"上海\"}}";
-        // Bug tests
-        // String json = "{\"name\": \"张三\", \"age\": 3, \"test\": 1}";
-        // String json = "{\"name\": \"张三\", \"age\": 3, \"test\": 1}}";
-        JSONParser jsonParser = new JSONParser();
-        JsonObject jsonObject = (JsonObject) jsonParser.fromJSON(json);
-        System.out.println(jsonObject);
-    }
-
-    @Test
-    public void JsonArrayTest() throws Exception {
-        String json = "[[1, 2, 35651.27184e+1024613], {\"name\":\"张三\",\"age\":30}]";
-        // Bug tests
-        // String json = "[1e01]"
-        // String json = "[1e01]]]]]]]]]]";
-        JSONParser jsonParser = new JSONParser();
-        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON(json);
-        System.out.println(jsonArray);
-    }
-}
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.MappedFileSource;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.parser.Parser;
+import com.dimcirui.jsonparser.tape.TapeArray;
+
+public class JSONParserTest {
+    @Test
+    public void JsonObjectTest() throws Exception {
+        String json = "{\"employees\":[{\"name\":\"张三\",\"age\":30,\"skills\":[\"Java\",\"Python\"]},{\"name\":\"李四\",\"age\":25,\"skills\":[\"JavaScript\",\"C#\"]},{\"name\":\"王五\",\"age\":35,\"skills\":[\"PHP\",\"SQL\"]}],\"departments\":[\"研发部\",\"市场部\",\"人力资源部\"],\"company\":{\"name\":\"示例科技有限公司\",\"foundedYear\":2010,\"location\":\"上海\"}}";
+        // Bug tests
+        // String json = "{\"name\": \"张三\", \"age\": 3, \"test\": 1}";
+        // String json = "{\"name\": \"张三\", \"age\": 3, \"test\": 1}}";
+        JSONParser jsonParser = new JSONParser();
+        JsonObject jsonObject = (JsonObject) jsonParser.fromJSON(json);
+        System.out.println(jsonObject);
+    }
+
+    @Test
+    public void JsonArrayTest() throws Exception {
+        String json = "[[1, 2, 35651.27184e+1024613], {\"name\":\"张三\",\"age\":30}]";
+        // Bug tests
+        // String json = "[1e01]"
+        // String json = "[1e01]]]]]]]]]]";
+        JSONParser jsonParser = new JSONParser();
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON(json);
+        System.out.println(jsonArray);
+    }
+
+    @Test
+    public void StreamingTest() throws Exception {
+        String json = "{\"employees\":[{\"name\":\"张三\",\"age\":30,\"skills\":[\"Java\",\"Python\"]}],\"company\":{\"name\":\"示例科技有限公司\",\"foundedYear\":2010}}";
+        JSONParser jsonParser = new JSONParser();
+        JsonObject jsonObject = (JsonObject) jsonParser.fromJSON(new StringReader(json));
+        JsonObject employee = jsonObject.getJsonArray("employees").getJsonObject(0);
+        assertEquals("张三", employee.get("name"));
+        assertEquals(30, employee.get("age"));
+        assertEquals("Python", employee.getJsonArray("skills").get(1));
+        assertEquals(2010, jsonObject.getJsonObject("company").get("foundedYear"));
+    }
+
+    @Test
+    public void ByteInputTest() throws Exception {
+        String json = "{\"name\":\"示例 😀\",\"escaped\":\"a\\\"b\\u00e9\",\"nums\":[-1.5e2,0,12345678901],\"ok\":true}";
+        JSONParser jsonParser = new JSONParser();
+        JsonObject jsonObject = (JsonObject) jsonParser.fromJSON(json.getBytes(StandardCharsets.UTF_8));
+        assertEquals("示例 😀", jsonObject.get("name"));
+        assertEquals("a\"b\u00e9", jsonObject.get("escaped"));
+        JsonArray nums = jsonObject.getJsonArray("nums");
+        assertEquals(-150.0, nums.get(0));
+        assertEquals(0, nums.get(1));
+        assertEquals(12345678901L, nums.get(2));
+        assertEquals(true, jsonObject.get("ok"));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(64);
+        direct.put("  [\"x\", null]  ".getBytes(StandardCharsets.UTF_8)).flip();
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON(direct);
+        assertEquals("x", jsonArray.get(0));
+        assertNull(jsonArray.get(1));
+    }
+
+    @Test
+    public void FileInputTest() throws Exception {
+        String json = "{\"company\":{\"name\":\"示例科技有限公司\",\"foundedYear\":2010},\"ratio\":-0.25e-1,\"tags\":[\"研发部\",false]}";
+        Path path = Files.createTempFile("jsonparser", ".json");
+        try {
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+            JsonObject jsonObject = (JsonObject) new JSONParser().fromFile(path);
+            assertEquals("示例科技有限公司", jsonObject.getJsonObject("company").get("name"));
+            assertEquals(-0.025, jsonObject.get("ratio"));
+
+            // tiny windows, so tokens and UTF-8 sequences span window boundaries
+            try (MappedFileSource source = new MappedFileSource(path, 7)) {
+                jsonObject = (JsonObject) new Parser().parse(new ByteLexer().stream(source));
+            }
+            assertEquals(2010, jsonObject.getJsonObject("company").get("foundedYear"));
+            assertEquals("研发部", jsonObject.getJsonArray("tags").get(0));
+            assertEquals(false, jsonObject.getJsonArray("tags").get(1));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void NumberTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        // numbers right before the outermost ']' or '}'
+        assertEquals(1, ((JsonArray) jsonParser.fromJSON("[1]")).get(0));
+        assertEquals(-3, ((JsonObject) jsonParser.fromJSON("{\"a\":-3}")).get("a"));
+        assertEquals(10.0, ((JsonArray) jsonParser.fromJSON("[1e01]")).get(0));
+
+        String[] numbers = {"0", "-0.0", "2147483648", "-2147483648", "9223372036854775807", "-9223372036854775808",
+                            "0.1", "-1.5E+2", "2e-2", "3.14159", "1e22", "1e23", "4.9e-324", "1.7976931348623157e308",
+                            "9007199254740993.0", "123456789012345678901234567890.5e-10", "35651.27184e+1024613",
+                            "9223372036854775808", "-9223372036854775809", "1234567890123456789012345"};
+        StringBuilder json = new StringBuilder("[");
+        for (String number : numbers) json.append(number).append(',');
+        json.setCharAt(json.length() - 1, ']');
+
+        JsonArray fromChars = (JsonArray) jsonParser.fromJSON(json.toString());
+        JsonArray fromBytes = (JsonArray) jsonParser.fromJSON(json.toString().getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < numbers.length; i++) {
+            Object expected;
+            if (numbers[i].contains(".") || numbers[i].contains("e") || numbers[i].contains("E")) {
+                expected = Double.valueOf(numbers[i]);
+            }
+            else if (new BigInteger(numbers[i]).bitLength() > 63) {
+                // beyond a long
+                expected = new BigInteger(numbers[i]);
+            }
+            else {
+                long num = Long.parseLong(numbers[i]);
+                expected = (num > Integer.MAX_VALUE || num < Integer.MIN_VALUE) ? (Object) num : (Object) (int) num;
+            }
+            assertEquals(numbers[i], expected, fromChars.get(i));
+            assertEquals(numbers[i], expected, fromBytes.get(i));
+            assertEquals(numbers[i], expected, ((TapeArray) jsonParser.fromJSONTape(json.toString())).get(i));
+        }
+    }
+
+    @Test
+    public void InvalidUtf8Test() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        int[][] invalid = {
+                {0xC0, 0xAF},               // '/' in 2 bytes
+                {0xE0, 0x80, 0xAF},         // '/' in 3 bytes
+                {0xF0, 0x80, 0x80, 0xAF},   // '/' in 4 bytes
+                {0xF0, 0x8F, 0xBF, 0xBF},   // U+FFFF in 4 bytes
+                {0xED, 0xA0, 0x80},         // high surrogate U+D800
+                {0xED, 0xBF, 0xBF},         // low surrogate U+DFFF
+                {0xF4, 0x90, 0x80, 0x80},   // U+110000
+                {0xF7, 0xBF, 0xBF, 0xBF},   // U+1FFFFF
+        };
+        for (int[] sequence : invalid) {
+            try {
+                jsonParser.fromJSON(utf8String(sequence));
+                fail("expected JsonParseException for " + Arrays.toString(sequence));
+            } catch (JsonParseException e) {
+                // expected
+            }
+        }
+
+        // the largest code point of each length is fine
+        JsonArray valid = (JsonArray) jsonParser.fromJSON(utf8String(0xDF, 0xBF, 0xEF, 0xBF, 0xBF, 0xF4, 0x8F, 0xBF, 0xBF));
+        assertEquals("\u07FF\uFFFF\uDBFF\uDFFF", valid.get(0));
+    }
+
+    // ["<bytes>"]
+    private static byte[] utf8String(int... sequence) {
+        byte[] json = new byte[sequence.length + 4];
+        json[0] = '[';
+        json[1] = '"';
+        for (int i = 0; i < sequence.length; i++) json[i + 2] = (byte) sequence[i];
+        json[json.length - 2] = '"';
+        json[json.length - 1] = ']';
+        return json;
+    }
+
+    @Test
+    public void KeyInterningTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        JsonArray first = (JsonArray) jsonParser.fromJSON("[{\"name\":\"a\"},{\"name\":\"name\"}]");
+        JsonArray second = (JsonArray) jsonParser.fromJSON("[{\"name\":\"b\"}]".getBytes(StandardCharsets.UTF_8));
+
+        String key = first.getJsonObject(0).getAllKeyValue().get(0).getKey();
+        assertSame(key, first.getJsonObject(1).getAllKeyValue().get(0).getKey());
+        assertSame(key, second.getJsonObject(0).getAllKeyValue().get(0).getKey());
+        // values are not interned
+        assertNotSame(key, first.getJsonObject(1).get("name"));
+    }
+
+    @Test
+    public void ReleaseInputTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        byte[] json = "{\"a\":[1,2,3]}".getBytes(StandardCharsets.UTF_8);
+        byte[] malformed = "{\"a\":[1,2,3}".getBytes(StandardCharsets.UTF_8);
+        jsonParser.fromJSON(json);
+        try {
+            jsonParser.fromJSON(malformed);
+            fail("expected JsonParseException");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        // the pooled lexer and parser must not keep the inputs reachable
+        WeakReference<byte[]> parsed = new WeakReference<>(json);
+        WeakReference<byte[]> failed = new WeakReference<>(malformed);
+        json = null;
+        malformed = null;
+        for (int i = 0; i < 10 && (parsed.get() != null || failed.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(parsed.get());
+        assertNull(failed.get());
+    }
+}
@@ -0,0 +1,107 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonTypeException;
+import com.dimcirui.jsonparser.model.JsonArray;
+
+public class JsonArrayTest {
+    private final JSONParser jsonParser = new JSONParser();
+
+    @Test
+    public void NumericTest() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(i);
+        }
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON(sb.append(']').toString());
+        assertEquals(10000, jsonArray.size());
+        assertEquals(1234, jsonArray.getInt(1234));
+        assertEquals(1234, jsonArray.get(1234));
+        assertEquals(49995000L, jsonArray.longStream().sum());
+        assertEquals(4999.5, jsonArray.doubleStream().average().getAsDouble(), 0);
+
+        JsonArray doubles = (JsonArray) jsonParser.fromJSON("[0.5, 1e1, -2.25]".getBytes(StandardCharsets.UTF_8));
+        assertEquals(10.0, doubles.get(1));
+        assertEquals(-2.25, doubles.getDouble(2), 0);
+        assertEquals(10L, doubles.getLong(1));
+        assertEquals(8.25, doubles.doubleStream().sum(), 0);
+    }
+
+    @Test
+    public void WideningTest() throws Exception {
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON("[1, -2, 10000000000, 3]");
+        // the ints before the long keep their type
+        assertEquals(1, jsonArray.get(0));
+        assertEquals(10000000000L, jsonArray.get(2));
+        assertEquals(3, jsonArray.get(3));
+        assertEquals(10000000002L, jsonArray.longStream().sum());
+        try {
+            jsonArray.getInt(2);
+            fail("expected JsonTypeException for a long");
+        } catch (JsonTypeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void FallbackTest() throws Exception {
+        JsonArray jsonArray = (JsonArray) jsonParser.fromJSON("[1, 2.5, \"x\", null, 10000000000]");
+        assertEquals(1, jsonArray.get(0));
+        assertEquals(2.5, jsonArray.get(1));
+        assertEquals("x", jsonArray.get(2));
+        assertNull(jsonArray.get(3));
+        assertEquals(10000000000L, jsonArray.get(4));
+        assertEquals(2.5, jsonArray.getDouble(1), 0);
+        try {
+            jsonArray.getLong(2);
+            fail("expected JsonTypeException for a string");
+        } catch (JsonTypeException e) {
+            // expected
+        }
+
+        JsonArray built = new JsonArray();
+        built.addDouble(1.5);
+        built.add(2);
+        built.add(new JsonArray());
+        assertEquals(1.5, built.get(0));
+        assertEquals(2, built.get(1));
+        assertEquals(0, built.getJsonArray(2).size());
+        try {
+            built.get(3);
+            fail("expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void AddKeepsTypeTest() throws Exception {
+        JsonArray jsonArray = new JsonArray();
+        jsonArray.add(5L);
+        jsonArray.add(6);
+        jsonArray.add(10000000000L);
+        assertEquals(5L, jsonArray.get(0));
+        assertEquals(6, jsonArray.get(1));
+        assertEquals(10000000000L, jsonArray.get(2));
+        assertEquals(10000000011L, jsonArray.longStream().sum());
+
+        // unboxed storage keeps both types too
+        JsonArray longs = new JsonArray();
+        longs.add(10000000000L);
+        longs.add(7);
+        assertEquals(10000000000L, longs.get(0));
+        assertEquals(7, longs.get(1));
+
+        // parsed integers are still narrowed
+        JsonArray parsed = (JsonArray) jsonParser.fromJSON("[5]");
+        parsed.add(5L);
+        assertEquals(5, parsed.get(0));
+        assertEquals(5L, parsed.get(1));
+    }
+}
@@ -0,0 +1,56 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonTypeException;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+public class JsonObjectTest {
+    @Test
+    public void OrderTest() throws Exception {
+        JsonObject jsonObject = (JsonObject) new JSONParser().fromJSON("{\"b\":1,\"a\":[2],\"c\":{},\"a\":3}");
+        List<Map.Entry<String, Object>> entries = jsonObject.getAllKeyValue();
+        // a duplicate key replaces the value in place
+        assertEquals(3, entries.size());
+        assertEquals("b", entries.get(0).getKey());
+        assertEquals("a", entries.get(1).getKey());
+        assertEquals(3, entries.get(1).getValue());
+        assertEquals("c", entries.get(2).getKey());
+
+        // the entries are a view
+        jsonObject.put("d", "x");
+        assertEquals(4, entries.size());
+        entries.get(0).setValue(true);
+        assertEquals(true, jsonObject.get("b"));
+    }
+
+    @Test
+    public void LargeObjectTest() {
+        JsonObject jsonObject = new JsonObject();
+        for (int i = 0; i < 1000; i++) {
+            jsonObject.put("key" + i, i);
+        }
+        jsonObject.put("key500", "replaced");
+        assertEquals(1000, jsonObject.size());
+        for (int i = 0; i < 1000; i++) {
+            // new Strings, not the ones put in
+            assertEquals(i == 500 ? "replaced" : i, jsonObject.get(new String("key" + i)));
+        }
+        assertNull(jsonObject.get("key1000"));
+        int i = 0;
+        for (Map.Entry<String, Object> entry : jsonObject.getAllKeyValue()) {
+            assertEquals("key" + i++, entry.getKey());
+        }
+        try {
+            jsonObject.getJsonObject("missing");
+            fail("expected JsonTypeException for a missing key");
+        } catch (JsonTypeException e) {
+            // expected
+        }
+    }
+}
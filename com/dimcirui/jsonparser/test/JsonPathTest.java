@@ -0,0 +1,105 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonPathException;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.path.JsonPath;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class JsonPathTest {
+    private static final String JSON = "{\"employees\":[{\"name\":\"张三\",\"age\":30,\"skills\":[\"Java\",\"Python\"]},{\"name\":\"李四\",\"age\":25,\"skills\":[]},{\"name\":\"王五\",\"age\":41,\"skills\":[\"Go\",\"C\",\"Rust\"]}],\"company\":{\"name\":\"示例科技\",\"list\":[0,1,2,3,4,5,6,7,8,9]}}";
+
+    private static List<Object> stream(String path) throws Exception {
+        return JsonPath.compile(path).select(new StringReader(JSON));
+    }
+
+    private static List<Object> tree(String path) throws Exception {
+        return JsonPath.compile(path).select(new JSONParser().fromJSON(JSON));
+    }
+
+    // objects are unordered in a tree, compare as sorted strings
+    private static List<String> sorted(List<Object> values) {
+        List<String> strings = new ArrayList<>();
+        for (Object value : values) strings.add(String.valueOf(value instanceof JsonObject || value instanceof JsonArray ? new JSONParser().toJSON(value) : value));
+        Collections.sort(strings);
+        return strings;
+    }
+
+    @Test
+    public void ChildIndexTest() throws Exception {
+        assertEquals(Arrays.asList("Java", "Go"), stream("$.employees[*].skills[0]"));
+        assertEquals(Arrays.asList("Java", "Go"), tree("$.employees[*].skills[0]"));
+        assertEquals(Arrays.asList("李四"), stream("$['employees'][1][\"name\"]"));
+        assertEquals(Arrays.asList(41), stream("$.employees[-1].age"));
+        assertEquals(Arrays.asList("Python", "Rust"), stream("$.employees[*].skills[-1]"));
+        assertTrue(stream("$.employees[5].name").isEmpty());
+        assertTrue(stream("$.company.missing").isEmpty());
+    }
+
+    @Test
+    public void SliceTest() throws Exception {
+        assertEquals(Arrays.asList(2, 3, 4), stream("$.company.list[2:5]"));
+        assertEquals(Arrays.asList(0, 3, 6, 9), stream("$.company.list[::3]"));
+        assertEquals(Arrays.asList(8, 9), stream("$.company.list[-2:]"));
+        assertEquals(Arrays.asList(1, 3, 5, 7, 9), tree("$.company.list[1::2]"));
+        // negative steps select from the end, matches stay in document order
+        assertEquals(Arrays.asList(0, 3, 6, 9), stream("$.company.list[::-3]"));
+        assertEquals(Arrays.asList(0, 3, 6, 9), tree("$.company.list[::-3]"));
+        assertEquals(Arrays.asList(7, 8), stream("$.company.list[-3:-1]"));
+        assertTrue(stream("$.company.list[5:2]").isEmpty());
+    }
+
+    @Test
+    public void RecursiveDescentTest() throws Exception {
+        assertEquals(Arrays.asList("张三", "李四", "王五", "示例科技"), stream("$..name"));
+        assertEquals(sorted(stream("$..name")), sorted(tree("$..name")));
+        assertEquals(Arrays.asList("Java", "Go", 0), stream("$..[0]").subList(1, 4));
+        assertEquals(sorted(stream("$..*")), sorted(tree("$..*")));
+        assertEquals(sorted(stream("$..skills[*]")), sorted(tree("$..skills[*]")));
+        List<Object> last = stream("$..[-1]");
+        assertEquals(4, last.size());
+        assertEquals("Python", last.get(0));
+        assertEquals("王五", ((JsonObject) last.get(1)).get("name"));
+        assertEquals("Rust", last.get(2));
+        assertEquals(9, last.get(3));
+    }
+
+    @Test
+    public void WholeValueTest() throws Exception {
+        List<Object> root = stream("$");
+        assertEquals(1, root.size());
+        JsonObject company = (JsonObject) stream("$.company").get(0);
+        assertEquals("示例科技", company.get("name"));
+        assertEquals(10, company.getJsonArray("list").size());
+
+        // on the byte lexer's token stream and on the tape representation
+        JsonPath path = JsonPath.compile("$.employees[*].age");
+        assertEquals(Arrays.asList(30, 25, 41), path.select(new ByteLexer().stream(JSON.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Arrays.asList(30, 25, 41), path.select(new JSONParser().fromJSONTape(JSON)));
+        assertEquals("$.employees[*].age", path.toString());
+    }
+
+    @Test
+    public void InvalidPathTest() throws Exception {
+        String[] invalid = {"", "employees", "$.", "$[", "$[1", "$['a", "$.a[x]", "$..", "$.[0]"};
+        for (String path : invalid) {
+            try {
+                JsonPath.compile(path);
+                fail("expected JsonPathException for " + path);
+            } catch (JsonPathException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonPushParser;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+public class JsonPushParserTest {
+    private static final String JSON = " {\"name\":\"张三 \\\"x\\\" \\u00e9\",\"age\":30,\"score\":-1.5e2," +
+            "\"tags\":[true,null,false,[]],\"big\":12345678901234,\"😀\":{}} ";
+
+    // events with their values, as JsonReader reads them from the whole input
+    private static List<String> expected(byte[] bytes) throws Exception {
+        List<String> events = new ArrayList<>();
+        JsonReader reader = new JsonReader(new ByteLexer().stream(bytes));
+        JsonEvent event;
+        while ((event = reader.nextEvent()) != JsonEvent.END_DOCUMENT) {
+            boolean hasValue = event == JsonEvent.KEY_NAME || event == JsonEvent.VALUE_STRING || event == JsonEvent.VALUE_NUMBER;
+            events.add(event + (hasValue ? " " + reader.getString() : ""));
+        }
+        events.add(JsonEvent.END_DOCUMENT.toString());
+        return events;
+    }
+
+    // pull until NEED_MORE_INPUT or END_DOCUMENT
+    private static void drain(JsonPushParser parser, List<String> events) {
+        JsonEvent event;
+        while ((event = parser.nextEvent()) != JsonEvent.NEED_MORE_INPUT) {
+            boolean hasValue = event == JsonEvent.KEY_NAME || event == JsonEvent.VALUE_STRING || event == JsonEvent.VALUE_NUMBER;
+            events.add(event + (hasValue ? " " + parser.getString() : ""));
+            if (event == JsonEvent.END_DOCUMENT) return;
+        }
+    }
+
+    @Test
+    public void SplitTest() throws Exception {
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        List<String> expected = expected(bytes);
+        // two chunks, split at every byte, also inside multi-byte chars and escapes
+        for (int split = 0; split <= bytes.length; split++) {
+            JsonPushParser parser = new JsonPushParser();
+            List<String> events = new ArrayList<>();
+            parser.feed(bytes, 0, split);
+            drain(parser, events);
+            parser.feed(ByteBuffer.wrap(bytes, split, bytes.length - split));
+            drain(parser, events);
+            parser.endOfInput();
+            drain(parser, events);
+            assertEquals("split at " + split, expected, events);
+        }
+    }
+
+    @Test
+    public void ByteByByteTest() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"name\":\"张三").append(i).append("\",\"v\":").append(i * 0.5).append('}');
+        }
+        byte[] bytes = sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        JsonPushParser parser = new JsonPushParser();
+        List<String> events = new ArrayList<>();
+        ByteBuffer chunk = ByteBuffer.allocate(1);
+        for (byte b : bytes) {
+            // the chunk is reused, as a channel read would
+            chunk.clear();
+            chunk.put(b).flip();
+            parser.feed(chunk);
+            drain(parser, events);
+        }
+        parser.endOfInput();
+        drain(parser, events);
+        assertEquals(expected(bytes), events);
+    }
+
+    @Test
+    public void NumberAtEndTest() {
+        JsonPushParser parser = new JsonPushParser();
+        parser.feed("12".getBytes(StandardCharsets.UTF_8), 0, 2);
+        // more digits may follow
+        assertEquals(JsonEvent.NEED_MORE_INPUT, parser.nextEvent());
+        parser.feed("34".getBytes(StandardCharsets.UTF_8), 0, 2);
+        assertEquals(JsonEvent.NEED_MORE_INPUT, parser.nextEvent());
+        parser.endOfInput();
+        assertEquals(JsonEvent.VALUE_NUMBER, parser.nextEvent());
+        assertEquals(1234L, parser.getLong());
+        assertEquals(JsonEvent.END_DOCUMENT, parser.nextEvent());
+    }
+
+    @Test
+    public void ErrorTest() {
+        JsonPushParser parser = new JsonPushParser();
+        parser.feed("[\"abc".getBytes(StandardCharsets.UTF_8), 0, 5);
+        assertEquals(JsonEvent.START_ARRAY, parser.nextEvent());
+        assertEquals(JsonEvent.NEED_MORE_INPUT, parser.nextEvent());
+        parser.endOfInput();
+        try {
+            parser.nextEvent();
+            fail("expected JsonParseException for an unterminated string");
+        } catch (JsonParseException e) {
+            // expected
+        }
+        try {
+            parser.feed(new byte[1], 0, 1);
+            fail("expected IllegalStateException after endOfInput");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        JsonPushParser invalid = new JsonPushParser();
+        invalid.feed("[1,]".getBytes(StandardCharsets.UTF_8), 0, 4);
+        assertEquals(JsonEvent.START_ARRAY, invalid.nextEvent());
+        assertEquals(JsonEvent.VALUE_NUMBER, invalid.nextEvent());
+        // the error shows up as soon as the token is there, before the end of input
+        try {
+            invalid.nextEvent();
+            fail("expected JsonParseException for a trailing comma");
+        } catch (JsonParseException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.lexer.ByteLexer;
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.lexer.PushLexer;
+import com.dimcirui.jsonparser.path.JsonPath;
+import com.dimcirui.jsonparser.stream.JsonEvent;
+import com.dimcirui.jsonparser.stream.JsonReader;
+
+public class JsonReaderTest {
+    @Test
+    public void EventTest() throws Exception {
+        String json = "{\"name\":\"张三\",\"age\":30,\"score\":-1.5e2,\"tags\":[true,null],\"ok\":false}";
+        JsonReader reader = new JsonReader(new StringReader(json));
+        assertEquals(JsonEvent.START_OBJECT, reader.nextEvent());
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals("name", reader.getString());
+        assertEquals(JsonEvent.VALUE_STRING, reader.nextEvent());
+        assertEquals("张三", reader.getString());
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals(JsonEvent.VALUE_NUMBER, reader.nextEvent());
+        assertEquals(30L, reader.getLong());
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals(JsonEvent.VALUE_NUMBER, reader.nextEvent());
+        assertEquals(-150.0, reader.getDouble(), 0);
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals(JsonEvent.START_ARRAY, reader.nextEvent());
+        assertEquals(JsonEvent.VALUE_TRUE, reader.nextEvent());
+        assertEquals(JsonEvent.VALUE_NULL, reader.nextEvent());
+        assertEquals(JsonEvent.END_ARRAY, reader.nextEvent());
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals(JsonEvent.VALUE_FALSE, reader.nextEvent());
+        assertEquals(JsonEvent.END_OBJECT, reader.nextEvent());
+        assertEquals(JsonEvent.END_DOCUMENT, reader.nextEvent());
+    }
+
+    @Test
+    public void NumberTextTest() throws Exception {
+        String json = "[1e2,1.50,-0,12345678901234567890123]";
+        // a Reader keeps the numbers as written
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.nextEvent();
+        for (String number : new String[] {"1e2", "1.50", "-0", "12345678901234567890123"}) {
+            assertEquals(JsonEvent.VALUE_NUMBER, reader.nextEvent());
+            assertEquals(number, reader.getString());
+        }
+        assertEquals(JsonEvent.END_ARRAY, reader.nextEvent());
+
+        // without number text only an integer beyond a long keeps its digits
+        reader = new JsonReader(new ByteLexer().stream(json.getBytes(StandardCharsets.UTF_8)));
+        reader.nextEvent();
+        for (String number : new String[] {"100.0", "1.5", "0", "12345678901234567890123"}) {
+            assertEquals(JsonEvent.VALUE_NUMBER, reader.nextEvent());
+            assertEquals(number, reader.getString());
+        }
+        assertEquals(new BigInteger("12345678901234567890123"), reader.getNumber());
+
+        ByteLexer lexer = new ByteLexer();
+        lexer.keepNumberText(true);
+        reader = new JsonReader(lexer.stream(json.getBytes(StandardCharsets.UTF_8)));
+        reader.nextEvent();
+        reader.nextEvent();
+        assertEquals("1e2", reader.getString());
+        assertEquals(100.0, reader.getDouble(), 0);
+    }
+
+    @Test
+    public void SkipValueTest() throws Exception {
+        String json = "[{\"skip\":{\"a\":[1,[2,3],{\"b\":4}]},\"keep\":\"x\"},{\"keep\":\"y\"}]";
+        JsonReader reader = new JsonReader(new StringReader(json));
+        StringBuilder kept = new StringBuilder();
+        JsonEvent event;
+        while ((event = reader.nextEvent()) != JsonEvent.END_DOCUMENT) {
+            if (event == JsonEvent.KEY_NAME) {
+                if (reader.getString().equals("skip")) {
+                    reader.skipValue();
+                    assertEquals(JsonEvent.END_OBJECT, reader.currentEvent());
+                    assertEquals(2, reader.getDepth());
+                }
+                else {
+                    reader.nextEvent();
+                    kept.append(reader.getString());
+                }
+            }
+        }
+        assertEquals("xy", kept.toString());
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void MismatchedBracketTest() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"a\":[\"b\"}]"));
+        while (reader.nextEvent() != JsonEvent.END_DOCUMENT) {}
+    }
+
+    @Test
+    public void RawSkipTest() throws Exception {
+        // brackets, quotes and escapes inside strings must not end the skip early
+        String json = "{\"skip\":{\"a\":\"}]\\\"[{\",\"b\":[1,{\"c\":\"\\\\\"},[]],\"张三\":-1.5e3},\"keep\":[true]}";
+        JsonReader[] readers = {
+                new JsonReader(new StringReader(json)),
+                new JsonReader(new Lexer().stream(new CharReader(new StringReader(json)))),
+                new JsonReader(new ByteLexer().stream(json.getBytes(StandardCharsets.UTF_8)))
+        };
+        for (JsonReader reader : readers) {
+            assertEquals(JsonEvent.START_OBJECT, reader.nextEvent());
+            assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+            reader.skipValue();
+            assertEquals(JsonEvent.END_OBJECT, reader.currentEvent());
+            assertEquals(1, reader.getDepth());
+            assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+            assertEquals("keep", reader.getString());
+            assertEquals(JsonEvent.START_ARRAY, reader.nextEvent());
+            assertEquals(JsonEvent.VALUE_TRUE, reader.nextEvent());
+            assertEquals(JsonEvent.END_ARRAY, reader.nextEvent());
+            assertEquals(JsonEvent.END_OBJECT, reader.nextEvent());
+            assertEquals(JsonEvent.END_DOCUMENT, reader.nextEvent());
+        }
+    }
+
+    @Test
+    public void RawSkipErrorTest() throws Exception {
+        String[] malformed = {"{\"a\":[1,2}", "{\"a\":{\"b\":[1,2]", "{\"a\":[\"]\"}"};
+        for (String json : malformed) {
+            JsonReader reader = new JsonReader(new ByteLexer().stream(json.getBytes(StandardCharsets.UTF_8)));
+            reader.nextEvent();
+            reader.nextEvent();
+            try {
+                reader.skipValue();
+                fail("expected JsonParseException for " + json);
+            } catch (JsonParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void IncompleteInputTest() throws Exception {
+        byte[] json = "{\"a\":{\"b\":1".getBytes(StandardCharsets.UTF_8);
+
+        PushLexer lexer = new PushLexer();
+        lexer.feed(ByteBuffer.wrap(json));
+        JsonReader reader = new JsonReader(lexer);
+        assertEquals(JsonEvent.START_OBJECT, reader.nextEvent());
+        assertEquals(JsonEvent.KEY_NAME, reader.nextEvent());
+        assertEquals(JsonEvent.START_OBJECT, reader.nextEvent());
+        try {
+            reader.skipValue();
+            fail("expected IllegalStateException for a value that is not complete");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        lexer = new PushLexer();
+        lexer.feed(ByteBuffer.wrap(json));
+        reader = new JsonReader(lexer);
+        reader.nextEvent();
+        try {
+            reader.readValue();
+            fail("expected IllegalStateException for a value that is not complete");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        lexer = new PushLexer();
+        lexer.feed(ByteBuffer.wrap("[1,[2,3]".getBytes(StandardCharsets.UTF_8)));
+        try {
+            JsonPath.compile("$[*]").select(lexer);
+            fail("expected IllegalStateException for a document that is not complete");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonTypeException;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.writer.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class JsonWriterTest {
+    private static final String JSON = "{\"name\":\"a\\\"b\\\\c\\n\\u0001张三\",\"age\":30,\"big\":12345678901,\"negative\":-9223372036854775808,\"pi\":3.14,\"flags\":[true,false,null],\"empty\":{},\"list\":[]}";
+
+    @Test
+    public void RoundTripTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        JsonObject jsonObject = (JsonObject) jsonParser.fromJSON(JSON);
+        String json = jsonParser.toJSON(jsonObject);
+
+        JsonObject again = (JsonObject) jsonParser.fromJSON(json);
+        assertEquals("a\"b\\c\n\u0001张三", again.get("name"));
+        assertEquals(30, again.get("age"));
+        assertEquals(12345678901L, again.get("big"));
+        assertEquals(Long.MIN_VALUE, again.get("negative"));
+        assertEquals(3.14, again.get("pi"));
+        assertEquals(3, again.getJsonArray("flags").size());
+        assertNull(again.getJsonArray("flags").get(2));
+        assertEquals(json, jsonParser.toJSON(again));
+        assertTrue(json.contains("\"a\\\"b\\\\c\\n\\u0001张三\""));
+
+        // tape and lazy documents serialize the same values
+        assertEquals(json, jsonParser.toJSON(jsonParser.fromJSON(jsonParser.toJSON(jsonParser.fromJSONTape(JSON)))));
+        assertEquals(json, jsonParser.toJSON(jsonParser.fromJSONLazy(JSON)));
+    }
+
+    @Test
+    public void PrettyPrintTest() throws Exception {
+        JsonArray jsonArray = (JsonArray) new JSONParser().fromJSON("[1,{\"a\":[]},{}]");
+        String expected = "[\n  1,\n  {\n    \"a\": []\n  },\n  {}\n]";
+        assertEquals(expected, new JsonWriter(true).toJSON(jsonArray));
+    }
+
+    @Test
+    public void OutputTargetTest() throws Exception {
+        // longer than the internal buffer, with a surrogate pair on the boundaries
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 3000; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("\"😀é\"");
+        }
+        sb.append(']');
+        JSONParser jsonParser = new JSONParser();
+        Object value = jsonParser.fromJSON(sb.toString());
+        JsonWriter writer = new JsonWriter();
+        String json = writer.toJSON(value);
+        assertEquals(sb.toString(), json);
+
+        StringWriter stringWriter = new StringWriter();
+        writer.write(value, stringWriter);
+        assertEquals(json, stringWriter.toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(value, out);
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(out.size());
+        writer.write(value, buffer);
+        assertArrayEquals(out.toByteArray(), buffer.array());
+    }
+
+    @Test
+    public void SplitSurrogateTest() throws Exception {
+        // after the opening quote the pair is split by the first flush, the next buffer is all 3-byte chars
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8190; i++) sb.append('a');
+        sb.append("😀");
+        for (int i = 0; i < 8191; i++) sb.append('张');
+        String value = sb.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonWriter().write(value, out);
+        assertArrayEquals(("\"" + value + "\"").getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    private static JsonArray array(Object... values) {
+        JsonArray jsonArray = new JsonArray();
+        for (Object value : values) jsonArray.add(value);
+        return jsonArray;
+    }
+
+    @Test
+    public void LoneSurrogateTest() throws Exception {
+        JsonWriter writer = new JsonWriter();
+        // a high surrogate at the end of a string and of the output, a low one without its pair
+        assertEquals("\"a\\ud83d\"", writer.toJSON("a\uD83D"));
+        assertEquals("[\"\\udc00b\",\"\\ud83d\"]", writer.toJSON(array("\uDC00b", "\uD83D")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write("x\uD83D", out);
+        assertEquals("\"x\\ud83d\"", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void PrimitiveNumberTest() throws Exception {
+        JsonWriter writer = new JsonWriter();
+        assertEquals("0.1", writer.toJSON(0.1f));
+        assertEquals("[0.1,1.5]", writer.toJSON(array(0.1f, 1.5)));
+
+        // unboxed arrays are written from their primitives, the same as boxed ones
+        JsonArray integers = new JsonArray();
+        integers.addLong(1);
+        integers.addLong(-10000000000L);
+        assertTrue(integers.isUnboxedIntegers());
+        assertEquals("[1,-10000000000]", writer.toJSON(integers));
+        JsonArray doubles = new JsonArray();
+        doubles.addDouble(0.5);
+        doubles.addDouble(-2e-7);
+        assertTrue(doubles.isUnboxedDoubles());
+        assertEquals("[0.5,-2.0E-7]", writer.toJSON(doubles));
+        assertEquals("[\n  0.5,\n  -2.0E-7\n]", new JsonWriter(true).toJSON(doubles));
+    }
+
+    @Test(expected = JsonTypeException.class)
+    public void NonFiniteTest() throws Exception {
+        JsonArray jsonArray = (JsonArray) new JSONParser().fromJSON("[1]");
+        jsonArray.add(Double.NaN);
+        new JsonWriter().toJSON(jsonArray);
+    }
+}
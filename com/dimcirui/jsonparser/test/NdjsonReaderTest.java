@@ -0,0 +1,112 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.stream.NdjsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class NdjsonReaderTest {
+    private static final int LINES = 5000;
+
+    private static byte[] ndjson() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"张三").append(i).append("\"}");
+            // blank lines, CRLF and a missing final newline are all accepted
+            if (i % 100 == 0) sb.append("\r\n\n");
+            else if (i < LINES - 1) sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void OrderedTest() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        // small chunks, so the input is split into many tasks
+        NdjsonReader reader = new NdjsonReader(pool, 256);
+        try (Stream<Object> records = reader.read(new ByteArrayInputStream(ndjson()), true)) {
+            List<Object> list = records.collect(Collectors.toList());
+            assertEquals(LINES, list.size());
+            for (int i = 0; i < LINES; i++) {
+                JsonObject jsonObject = (JsonObject) list.get(i);
+                assertEquals(i, jsonObject.get("id"));
+                assertEquals("张三" + i, jsonObject.get("name"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void UnorderedTest() throws Exception {
+        Path path = Files.createTempFile("records", ".ndjson");
+        try {
+            Files.write(path, ndjson());
+            try (Stream<Object> records = new NdjsonReader(ForkJoinPool.commonPool(), 100).read(path, false)) {
+                long sum = records.mapToLong(record -> ((Number) ((JsonObject) record).get("id")).longValue()).sum();
+                assertEquals((long) LINES * (LINES - 1) / 2, sum);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void LongLineTest() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) sb.append(i).append(',');
+        sb.append("1000]\n{}\n");
+        try (Stream<Object> records = new NdjsonReader(ForkJoinPool.commonPool(), 16)
+                .read(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), true)) {
+            assertEquals(2, records.count());
+        }
+    }
+
+    @Test
+    public void ScalarLineTest() throws Exception {
+        byte[] bytes = "42\n\"x\"\ntrue\nnull\n-1.5\n[1]\n".getBytes(StandardCharsets.UTF_8);
+        try (Stream<Object> records = new NdjsonReader().read(new ByteArrayInputStream(bytes), true)) {
+            List<Object> list = records.collect(Collectors.toList());
+            assertEquals(Arrays.asList(42, "x", true, null, -1.5), list.subList(0, 5));
+            assertEquals(1, ((JsonArray) list.get(5)).get(0));
+        }
+    }
+
+    @Test
+    public void MalformedLineTest() throws Exception {
+        byte[] bytes = "{\"a\":1}\n{\"a\":}\n{\"a\":3}\n".getBytes(StandardCharsets.UTF_8);
+        try (Stream<Object> records = new NdjsonReader().read(new ByteArrayInputStream(bytes), true)) {
+            records.count();
+            fail("expected JsonParseException");
+        } catch (JsonParseException e) {
+            // the second line starts after "{"a":1}\n"
+            assertTrue(e.getMessage(), e.getMessage().contains("byte offset 8"));
+        }
+
+        // offsets count across chunks
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) sb.append("{\"id\":").append(i).append("}\n");
+        int offset = sb.length();
+        sb.append("[1,]\n");
+        try (Stream<Object> records = new NdjsonReader(ForkJoinPool.commonPool(), 64)
+                .read(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), true)) {
+            records.count();
+            fail("expected JsonParseException");
+        } catch (JsonParseException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("byte offset " + offset + ":"));
+        }
+    }
+}
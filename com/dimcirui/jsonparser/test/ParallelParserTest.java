@@ -0,0 +1,86 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.lexer.SymbolTable;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.parser.ParallelParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelParserTest {
+    // threshold 0, so even small documents take the parallel path
+    private final ParallelParser parallelParser = new ParallelParser(ForkJoinPool.commonPool(), new SymbolTable(), 0);
+
+    private static byte[] records(int count) {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(",\n");
+            switch (i % 4) {
+                case 0: sb.append("{\"id\":").append(i).append(",\"text\":\"a,b]c}\\\"[{\",\"list\":[1,[2,{}]]}"); break;
+                case 1: sb.append('"').append("张三").append(i).append('"'); break;
+                case 2: sb.append(i * 1.5); break;
+                default: sb.append(i % 8 == 3 ? "true" : "null");
+            }
+        }
+        sb.append("\n]");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void SameAsSequentialTest() throws Exception {
+        byte[] bytes = records(100000);
+        JsonArray expected = (JsonArray) new JSONParser().fromJSON(bytes);
+        JsonArray jsonArray = (JsonArray) parallelParser.parse(bytes);
+        assertEquals(expected.size(), jsonArray.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Object value = expected.get(i);
+            if (value instanceof JsonObject) {
+                JsonObject jsonObject = (JsonObject) jsonArray.get(i);
+                assertEquals(((JsonObject) value).get("id"), jsonObject.get("id"));
+                assertEquals("a,b]c}\"[{", jsonObject.get("text"));
+                assertEquals(2, jsonObject.getJsonArray("list").size());
+            }
+            else {
+                assertEquals(value, jsonArray.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void EdgeCaseTest() throws Exception {
+        assertEquals(0, ((JsonArray) parallelParser.parse(" [ ] ".getBytes(StandardCharsets.UTF_8))).size());
+        assertEquals(1, ((JsonArray) parallelParser.parse("[[]]".getBytes(StandardCharsets.UTF_8))).size());
+        // other roots are parsed sequentially
+        assertEquals(2, ((JsonObject) parallelParser.parse("{\"a\":[1,2]}".getBytes(StandardCharsets.UTF_8))).getJsonArray("a").size());
+        // only the bytes between position and limit
+        ByteBuffer buffer = ByteBuffer.wrap("xx[1,2,3]yy".getBytes(StandardCharsets.UTF_8), 2, 7);
+        assertEquals(3, ((JsonArray) parallelParser.parse(buffer)).size());
+    }
+
+    @Test
+    public void SameErrorTest() throws Exception {
+        String[] malformed = {"[1,]", "[1,,2]", "[{\"a\":1}, {\"b\" 2}]", "[1 2]", "[\"abc", "[{]}", "[1,2}"};
+        for (String json : malformed) {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            String expected = null;
+            try {
+                new JSONParser().fromJSON(bytes);
+            } catch (JsonParseException e) {
+                expected = e.getMessage();
+            }
+            try {
+                parallelParser.parse(bytes);
+                fail("expected JsonParseException for " + json);
+            } catch (JsonParseException e) {
+                assertEquals(json, expected, e.getMessage());
+            }
+        }
+    }
+}
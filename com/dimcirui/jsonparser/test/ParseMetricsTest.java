@@ -0,0 +1,122 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.metrics.MetricsSnapshot;
+import com.dimcirui.jsonparser.metrics.ParseMetrics;
+import com.dimcirui.jsonparser.model.JsonObject;
+
+public class ParseMetricsTest {
+
+    @Test
+    public void CountTest() throws Exception {
+        ParseMetrics metrics = new ParseMetrics();
+        JSONParser jsonParser = new JSONParser(metrics);
+        String json = "{\"a\": [1, {\"b\": [true]}], \"c\": \"x\"}";
+
+        jsonParser.fromJSON(json);
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getDocuments());
+        assertEquals(json.length(), snapshot.getInputSize());
+        // { "a" : [ 1 , { "b" : [ true ] } ] , "c" : "x" }
+        assertEquals(19, snapshot.getTokens());
+        assertEquals(4, snapshot.getMaxDepth());
+        assertEquals(1, snapshot.getLexLatency().getCount());
+        assertEquals(1, snapshot.getParseLatency().getCount());
+
+        // every entry point counts the same tokens
+        jsonParser.fromJSON(new StringReader(json));
+        jsonParser.fromJSON(json.getBytes(StandardCharsets.UTF_8));
+        snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getDocuments());
+        assertEquals(3L * json.length(), snapshot.getInputSize());
+        assertEquals(57, snapshot.getTokens());
+        assertEquals(3, snapshot.getLatency().getCount());
+        assertEquals(3, snapshot.getCountedDocuments());
+        assertEquals(0, snapshot.getFailures());
+
+        metrics.reset();
+        assertEquals(0, metrics.getDocuments());
+        assertEquals(0, metrics.snapshot().getLatency().getCount());
+    }
+
+    @Test
+    public void EntryPointTest() throws Exception {
+        ParseMetrics metrics = new ParseMetrics();
+        JSONParser jsonParser = new JSONParser(metrics);
+        String json = "{\"a\": [1, {\"b\": [true]}], \"c\": \"x\"}";
+
+        // binding counts tokens and depth like fromJSON
+        jsonParser.fromJSON(json, JsonObject.class);
+        jsonParser.fromJSON(json.getBytes(StandardCharsets.UTF_8), JsonObject.class);
+        assertEquals(2, metrics.getCountedDocuments());
+        assertEquals(38, metrics.getTokens());
+        assertEquals(4, metrics.getMaxDepth());
+
+        // the other modes record time and size, tokens and depth stay unknown
+        metrics.reset();
+        jsonParser.fromJSONTape(json);
+        jsonParser.fromJSONLazy(json);
+        jsonParser.fromJSONParallel(json.getBytes(StandardCharsets.UTF_8));
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(3, snapshot.getDocuments());
+        assertEquals(3L * json.length(), snapshot.getInputSize());
+        assertEquals(0, snapshot.getCountedDocuments());
+        assertEquals(0, snapshot.getTokens());
+        assertEquals(0, snapshot.getMaxDepth());
+    }
+
+    @Test
+    public void FailureTest() throws Exception {
+        ParseMetrics metrics = new ParseMetrics();
+        JSONParser jsonParser = new JSONParser(metrics);
+        try {
+            jsonParser.fromJSON("{\"a\": }");
+            fail("expected JsonParseException");
+        } catch (JsonParseException e) {
+            // expected
+        }
+        assertEquals(1, metrics.getDocuments());
+        assertEquals(1, metrics.getFailures());
+        assertEquals(0, metrics.getCountedDocuments());
+    }
+
+    @Test
+    public void ThresholdTest() throws Exception {
+        // every call is slow and every document over 10 chars is large
+        ParseMetrics metrics = new ParseMetrics(-1, 10);
+        JSONParser jsonParser = new JSONParser(metrics);
+        jsonParser.fromJSON("[1]");
+        jsonParser.fromJSON("[1, 2, 3, 4, 5]");
+        assertEquals(2, metrics.getSlowDocuments());
+        assertEquals(1, metrics.getLargeDocuments());
+        assertEquals(15, metrics.getInputSizeMax());
+    }
+
+    @Test
+    public void MXBeanTest() throws Exception {
+        ParseMetrics metrics = new ParseMetrics();
+        JSONParser jsonParser = new JSONParser(metrics);
+        jsonParser.fromJSON("[[[]]]");
+        ObjectName name = metrics.register("ParseMetricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "Documents"));
+            assertEquals(3L, server.getAttribute(name, "MaxDepth"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Documents"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
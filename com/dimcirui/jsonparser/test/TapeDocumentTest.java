@@ -0,0 +1,105 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+
+import com.dimcirui.jsonparser.core.JSONParser;
+import com.dimcirui.jsonparser.exception.JsonParseException;
+import com.dimcirui.jsonparser.exception.JsonTypeException;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.tape.TapeArray;
+import com.dimcirui.jsonparser.tape.TapeObject;
+
+public class TapeDocumentTest {
+    private static final String JSON = "{\"employees\":[{\"name\":\"张三\",\"age\":30,\"skills\":[\"Java\",\"Python\"]},{\"name\":\"李四\",\"age\":25,\"skills\":[]}],\"company\":{\"name\":\"示例\\\"科技\",\"foundedYear\":2010,\"revenue\":-1.5e9,\"employees\":12345678901},\"public\":false,\"parent\":null}";
+
+    @Test
+    public void SameValuesAsTreeTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        JsonObject tree = (JsonObject) jsonParser.fromJSON(JSON);
+        TapeObject tape = (TapeObject) jsonParser.fromJSONTape(JSON);
+
+        TapeArray employees = tape.getTapeArray("employees");
+        assertEquals(2, employees.size());
+        assertEquals(tree.getJsonArray("employees").getJsonObject(0).get("name"), employees.getTapeObject(0).get("name"));
+        assertEquals(30, employees.getTapeObject(0).get("age"));
+        assertEquals("Python", employees.getTapeObject(0).getTapeArray("skills").get(1));
+        assertEquals(0, employees.getTapeObject(1).getTapeArray("skills").size());
+
+        TapeObject company = tape.getTapeObject("company");
+        for (String key : new String[]{"name", "foundedYear", "revenue", "employees"}) {
+            assertEquals(key, tree.getJsonObject("company").get(key), company.get(key));
+        }
+        assertEquals(false, tape.get("public"));
+        assertNull(tape.get("parent"));
+        assertTrue(tape.containsKey("parent"));
+        assertNull(tape.get("missing"));
+        assertEquals(4, tape.size());
+        assertEquals("company", tape.getAllKeyValue().get(1).getKey());
+
+        int count = 0;
+        for (Object employee : employees) {
+            assertTrue(employee instanceof TapeObject);
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void LazyTest() throws Exception {
+        JSONParser jsonParser = new JSONParser();
+        JsonObject tree = (JsonObject) jsonParser.fromJSON(JSON);
+        JsonObject lazy = (JsonObject) jsonParser.fromJSONLazy(JSON);
+
+        JsonObject company = lazy.getJsonObject("company");
+        assertSame(company, lazy.getJsonObject("company"));
+        assertEquals(tree.getJsonObject("company").get("revenue"), company.get("revenue"));
+        assertEquals(12345678901L, company.get("employees"));
+
+        JsonArray employees = lazy.getJsonArray("employees");
+        assertEquals("李四", employees.getJsonObject(1).get("name"));
+        int count = 0;
+        for (Object employee : employees) {
+            assertTrue(employee instanceof JsonObject);
+            count++;
+        }
+        assertEquals(2, count);
+        assertEquals(false, lazy.get("public"));
+        assertEquals(4, lazy.getAllKeyValue().size());
+    }
+
+    @Test
+    public void NumberTest() throws Exception {
+        TapeArray tape = (TapeArray) new JSONParser().fromJSONTape("[0,-7,3000000000,-1.5e2,0.1,98765432109876543210]");
+        assertEquals(0, tape.get(0));
+        assertEquals(-7, tape.get(1));
+        assertEquals(3000000000L, tape.get(2));
+        assertEquals(-150.0, tape.get(3));
+        assertEquals(0.1, tape.get(4));
+        assertEquals(new BigInteger("98765432109876543210"), tape.get(5));
+
+        // the grammar is checked up front even though the values are converted on read
+        for (String json : new String[] {"[-]", "[01]", "[1.]", "[1e]", "[1e+]", "[.5]", "[-a]"}) {
+            try {
+                new JSONParser().fromJSONLazy(json);
+                fail("expected JsonParseException for " + json);
+            } catch (JsonParseException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = JsonTypeException.class)
+    public void WrongTypeTest() throws Exception {
+        TapeObject tape = (TapeObject) new JSONParser().fromJSONTape(JSON);
+        tape.getTapeArray("company");
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void MalformedTest() throws Exception {
+        new JSONParser().fromJSONTape("{\"a\":[1,2}");
+    }
+}
@@ -0,0 +1,86 @@
+package com.dimcirui.jsonparser.test;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+
+import com.dimcirui.jsonparser.lexer.CharReader;
+import com.dimcirui.jsonparser.lexer.Lexer;
+import com.dimcirui.jsonparser.lexer.Token;
+import com.dimcirui.jsonparser.lexer.TokenList;
+import com.dimcirui.jsonparser.lexer.TokenType;
+
+public class TokenListTest {
+
+    @Test
+    public void TokenizeTest() throws Exception {
+        Lexer lexer = new Lexer();
+        TokenList tokenList = lexer.tokenize(new CharReader(new StringReader("{\"a\": [1, -2.5, \"x\\ty\", true, null]}")));
+        assertEquals(16, tokenList.size());
+
+        assertEquals(TokenType.BEGIN_OBJECT, tokenList.next().getTokenType());
+        Token key = tokenList.next();
+        assertEquals("a", key.getValue());
+        assertEquals(TokenType.SEP_COLON, tokenList.next().getTokenType());
+        assertEquals("a", tokenList.peekPrevious().getValue());
+        assertEquals("[", tokenList.next().getValue());
+        assertEquals(1L, tokenList.next().getLongValue());
+        tokenList.next();
+        Token number = tokenList.next();
+        assertTrue(number.isDouble());
+        assertEquals(-2.5, number.getDoubleValue(), 0);
+        tokenList.next();
+        assertEquals("x\ty", tokenList.next().getValue());
+        tokenList.next();
+        assertEquals("true", tokenList.next().getValue());
+        tokenList.next();
+        assertEquals(TokenType.NULL, tokenList.next().getTokenType());
+        assertEquals(TokenType.END_ARRAY, tokenList.next().getTokenType());
+        assertEquals(TokenType.END_OBJECT, tokenList.next().getTokenType());
+        assertEquals(TokenType.END_DOCUMENT, tokenList.next().getTokenType());
+        assertFalse(tokenList.hasMore());
+
+        // keys are interned, so both parses return the same String
+        tokenList.reset();
+        tokenList.next();
+        String first = tokenList.next().getValue();
+        TokenList again = lexer.tokenize(new CharReader(new StringReader("{\"a\": 2}")));
+        assertSame(tokenList, again);
+        assertEquals(6, again.size());
+        again.next();
+        assertSame(first, again.next().getValue());
+    }
+
+    @Test
+    public void ResetTest() throws Exception {
+        Lexer lexer = new Lexer();
+        TokenList tokenList = lexer.tokenize(new CharReader(new StringReader("[\"secret\", 1]")));
+        assertEquals(6, tokenList.size());
+        // a pooled lexer drops the tokens of its last document
+        lexer.reset();
+        assertEquals(0, tokenList.size());
+        assertFalse(tokenList.hasMore());
+    }
+
+    @Test
+    public void AddTest() {
+        TokenList tokenList = new TokenList();
+        tokenList.add(new Token(TokenType.BEGIN_ARRAY, "["));
+        tokenList.add(new Token(TokenType.STRING, "s"));
+        tokenList.add(new Token(TokenType.SEP_COMMA, ","));
+        tokenList.add(new Token(10000000000L));
+        tokenList.add(new Token(TokenType.END_ARRAY, "]"));
+        assertEquals(5, tokenList.size());
+        assertNull(tokenList.peekPrevious());
+        assertEquals("[", tokenList.next().getValue());
+        assertEquals("s", tokenList.next().getValue());
+        tokenList.next();
+        assertEquals(10000000000L, tokenList.next().getNumber());
+        assertEquals("]", tokenList.peek().getValue());
+
+        tokenList.clear();
+        assertEquals(0, tokenList.size());
+        assertFalse(tokenList.hasMore());
+    }
+}
@@ -0,0 +1,380 @@
+package com.dimcirui.jsonparser.writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import com.dimcirui.jsonparser.exception.*;
+import com.dimcirui.jsonparser.model.JsonArray;
+import com.dimcirui.jsonparser.model.JsonObject;
+import com.dimcirui.jsonparser.tape.TapeArray;
+import com.dimcirui.jsonparser.tape.TapeObject;
+
+/**
+ * Serialize a JsonObject, a JsonArray (or their tape counterparts) or a scalar value back to JSON.
+ * Output is compact by default, or indented with pretty-print.
+ *
+ * Chars are collected in a thread-local buffer and flushed to the target
+ *      when it is full, so a document is never built up as one String.
+ * Strings without chars to escape are copied in bulk,
+ *      integers are written digit by digit without creating a String,
+ *      and an unboxed JsonArray is written straight from its primitives.
+ * A surrogate that is not part of a pair is written as a hex escape sequence,
+ *      so UTF-8 output never has to drop or replace it.
+ */
+public class JsonWriter {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String INDENT = "  ";
+
+    // chars below 0x80 that must be escaped inside a string
+    private static final boolean[] NEEDS_ESCAPE = new boolean[128];
+    static {
+        for (int i = 0; i < 0x20; i++) NEEDS_ESCAPE[i] = true;
+        NEEDS_ESCAPE['"'] = true;
+        NEEDS_ESCAPE['\\'] = true;
+    }
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+    private final boolean pretty;
+
+    public JsonWriter() {
+        this(false);
+    }
+
+    /**
+     * @param pretty put every value on its own line, indented by nesting depth
+     */
+    public JsonWriter(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    public String toJSON(Object value) {
+        StringBuilder sb = new StringBuilder();
+        Output output = OUTPUT.get();
+        output.begin(sb, null, null, null);
+        try {
+            writeValue(output, value, 0);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            output.end();
+        }
+        return sb.toString();
+    }
+
+    public void write(Object value, Writer writer) throws IOException {
+        Output output = OUTPUT.get();
+        output.begin(null, writer, null, null);
+        try {
+            writeValue(output, value, 0);
+            output.flush();
+        } finally {
+            output.end();
+        }
+    }
+
+    /**
+     * write UTF-8 encoded bytes.
+     * @param value
+     * @param out
+     * @throws IOException
+     */
+    public void write(Object value, OutputStream out) throws IOException {
+        Output output = OUTPUT.get();
+        output.begin(null, null, out, null);
+        try {
+            writeValue(output, value, 0);
+            output.flush();
+        } finally {
+            output.end();
+        }
+    }
+
+    /**
+     * write UTF-8 encoded bytes at the position of the buffer.
+     * @param value
+     * @param buffer
+     * @throws java.nio.BufferOverflowException If the buffer is too small.
+     */
+    public void write(Object value, ByteBuffer buffer) {
+        Output output = OUTPUT.get();
+        output.begin(null, null, null, buffer);
+        try {
+            writeValue(output, value, 0);
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            output.end();
+        }
+    }
+
+    private void writeValue(Output output, Object value, int depth) throws IOException {
+        if (value == null) output.write("null");
+        else if (value instanceof String) writeString(output, (String) value);
+        else if (value instanceof Integer || value instanceof Long ||
+                 value instanceof Short || value instanceof Byte) output.writeLong(((Number) value).longValue());
+        else if (value instanceof Double) output.writeDouble((Double) value);
+        // not widened to double, that would write 0.1f as 0.10000000149011612
+        else if (value instanceof Float) output.writeFloat((Float) value);
+        else if (value instanceof Number) output.write(value.toString());
+        else if (value instanceof Boolean) output.write((Boolean) value ? "true" : "false");
+        else if (value instanceof JsonObject) writeObject(output, ((JsonObject) value).getAllKeyValue(), depth);
+        else if (value instanceof JsonArray) writeArray(output, (JsonArray) value, depth);
+        else if (value instanceof TapeObject) writeObject(output, ((TapeObject) value).getAllKeyValue(), depth);
+        else if (value instanceof TapeArray) writeArray(output, (TapeArray) value, depth);
+        else throw new JsonTypeException("Cannot serialize value of type " + value.getClass().getSimpleName());
+    }
+
+    private void writeObject(Output output, List<Map.Entry<String, Object>> entries, int depth) throws IOException {
+        output.write('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : entries) {
+            if (!first) output.write(',');
+            first = false;
+            newLine(output, depth + 1);
+            writeString(output, entry.getKey());
+            output.write(':');
+            if (pretty) output.write(' ');
+            writeValue(output, entry.getValue(), depth + 1);
+        }
+        if (!first) newLine(output, depth);
+        output.write('}');
+    }
+
+    private void writeArray(Output output, JsonArray array, int depth) throws IOException {
+        boolean integers = array.isUnboxedIntegers();
+        if (!integers && !array.isUnboxedDoubles()) {
+            writeArray(output, (Iterable<Object>) array, depth);
+            return;
+        }
+        // nothing is boxed on the way
+        output.write('[');
+        int size = array.size();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) output.write(',');
+            newLine(output, depth + 1);
+            if (integers) output.writeLong(array.getLong(i));
+            else output.writeDouble(array.getDouble(i));
+        }
+        if (size > 0) newLine(output, depth);
+        output.write(']');
+    }
+
+    private void writeArray(Output output, Iterable<Object> elements, int depth) throws IOException {
+        output.write('[');
+        boolean first = true;
+        for (Object element : elements) {
+            if (!first) output.write(',');
+            first = false;
+            newLine(output, depth + 1);
+            writeValue(output, element, depth + 1);
+        }
+        if (!first) newLine(output, depth);
+        output.write(']');
+    }
+
+    private void newLine(Output output, int depth) throws IOException {
+        if (!pretty) return;
+        output.write('\n');
+        for (int i = 0; i < depth; i++) output.write(INDENT);
+    }
+
+    private void writeString(Output output, String s) throws IOException {
+        output.write('"');
+        int length = s.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = s.charAt(i);
+            if (ch >= 128) {
+                if (!Character.isSurrogate(ch)) continue;
+                // a pair is copied, a lone surrogate is escaped below
+                if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    i++;
+                    continue;
+                }
+            }
+            else if (!NEEDS_ESCAPE[ch]) continue;
+
+            // copy the run before the char in bulk, then escape it
+            output.write(s, start, i);
+            start = i + 1;
+            switch (ch) {
+                case '"': output.write("\\\""); break;
+                case '\\': output.write("\\\\"); break;
+                case '\b': output.write("\\b"); break;
+                case '\f': output.write("\\f"); break;
+                case '\n': output.write("\\n"); break;
+                case '\r': output.write("\\r"); break;
+                case '\t': output.write("\\t"); break;
+                default:
+                    output.write("\\u");
+                    output.write(HEX[ch >> 12]);
+                    output.write(HEX[(ch >> 8) & 0xF]);
+                    output.write(HEX[(ch >> 4) & 0xF]);
+                    output.write(HEX[ch & 0xF]);
+            }
+        }
+        output.write(s, start, length);
+        output.write('"');
+    }
+
+    /**
+     * Per-thread char buffer plus the target it is flushed to.
+     * Exactly one of the targets is set between begin() and end().
+     */
+    private static class Output {
+        private final char[] chars = new char[BUFFER_SIZE];
+        // 3 bytes per char, plus one when a flush starts with the low half of a pair carried over
+        private final byte[] bytes = new byte[BUFFER_SIZE * 3 + 1];
+        private final StringBuilder number = new StringBuilder(32);
+        private int pos = 0;
+        // a high surrogate left at the end of the previous flush
+        private char pendingHigh = 0;
+
+        private StringBuilder stringTarget;
+        private Writer writerTarget;
+        private OutputStream streamTarget;
+        private ByteBuffer bufferTarget;
+
+        void begin(StringBuilder sb, Writer writer, OutputStream stream, ByteBuffer buffer) {
+            pos = 0;
+            pendingHigh = 0;
+            stringTarget = sb;
+            writerTarget = writer;
+            streamTarget = stream;
+            bufferTarget = buffer;
+        }
+
+        void end() {
+            stringTarget = null;
+            writerTarget = null;
+            streamTarget = null;
+            bufferTarget = null;
+        }
+
+        void write(char ch) throws IOException {
+            if (pos == chars.length) flush();
+            chars[pos++] = ch;
+        }
+
+        void write(String s) throws IOException {
+            write(s, 0, s.length());
+        }
+
+        void write(String s, int start, int end) throws IOException {
+            while (start < end) {
+                if (pos == chars.length) flush();
+                int n = Math.min(end - start, chars.length - pos);
+                s.getChars(start, start + n, chars, pos);
+                pos += n;
+                start += n;
+            }
+        }
+
+        // digits are produced backwards at the end of the buffer space
+        void writeLong(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                write("-9223372036854775808");
+                return;
+            }
+            if (chars.length - pos < 20) flush();
+            if (value < 0) {
+                chars[pos++] = '-';
+                value = -value;
+            }
+            int digits = 1;
+            for (long v = value / 10; v != 0; v /= 10) digits++;
+            int i = pos + digits;
+            pos = i;
+            do {
+                chars[--i] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+        }
+
+        // StringBuilder.append(double) formats into the builder without a String
+        void writeDouble(double value) throws IOException {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new JsonTypeException("Cannot serialize non-finite number " + value);
+            }
+            number.setLength(0);
+            number.append(value);
+            writeNumber();
+        }
+
+        // the shortest text that reads back as the same float
+        void writeFloat(float value) throws IOException {
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                throw new JsonTypeException("Cannot serialize non-finite number " + value);
+            }
+            number.setLength(0);
+            number.append(value);
+            writeNumber();
+        }
+
+        private void writeNumber() throws IOException {
+            if (chars.length - pos < number.length()) flush();
+            number.getChars(0, number.length(), chars, pos);
+            pos += number.length();
+        }
+
+        void flush() throws IOException {
+            if (stringTarget != null) stringTarget.append(chars, 0, pos);
+            else if (writerTarget != null) writerTarget.write(chars, 0, pos);
+            else {
+                int n = encode();
+                if (streamTarget != null) streamTarget.write(bytes, 0, n);
+                else bufferTarget.put(bytes, 0, n);
+            }
+            pos = 0;
+        }
+
+        // UTF-8 encode chars[0, pos) into bytes
+        private int encode() {
+            int n = 0;
+            for (int i = 0; i < pos; i++) {
+                char ch = chars[i];
+                if (pendingHigh != 0) {
+                    char high = pendingHigh;
+                    pendingHigh = 0;
+                    if (Character.isLowSurrogate(ch)) {
+                        int codePoint = Character.toCodePoint(high, ch);
+                        bytes[n++] = (byte) (0xF0 | (codePoint >> 18));
+                        bytes[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        bytes[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        bytes[n++] = (byte) (0x80 | (codePoint & 0x3F));
+                        continue;
+                    }
+                    bytes[n++] = '?';
+                }
+                if (ch < 0x80) {
+                    bytes[n++] = (byte) ch;
+                }
+                else if (ch < 0x800) {
+                    bytes[n++] = (byte) (0xC0 | (ch >> 6));
+                    bytes[n++] = (byte) (0x80 | (ch & 0x3F));
+                }
+                else if (Character.isHighSurrogate(ch)) {
+                    pendingHigh = ch;
+                }
+                else if (Character.isLowSurrogate(ch)) {
+                    bytes[n++] = '?';
+                }
+                else {
+                    bytes[n++] = (byte) (0xE0 | (ch >> 12));
+                    bytes[n++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                    bytes[n++] = (byte) (0x80 | (ch & 0x3F));
+                }
+            }
+            return n;
+        }
+    }
+}